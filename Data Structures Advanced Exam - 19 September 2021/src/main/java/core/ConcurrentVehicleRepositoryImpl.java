@@ -0,0 +1,305 @@
+package core;
+
+import models.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.toList;
+
+public class ConcurrentVehicleRepositoryImpl implements VehicleRepository {
+
+    static class Listing {
+        private final Vehicle vehicle;
+        private final long sequence;
+        private final String seller;
+        private final String brand;
+        private final double price;
+        private final AtomicBoolean sold;
+
+        Listing(Vehicle vehicle, long sequence) {
+            this.vehicle = vehicle;
+            this.sequence = sequence;
+            this.seller = vehicle.getSeller();
+            this.brand = vehicle.getBrand();
+            this.price = vehicle.getPrice();
+            this.sold = new AtomicBoolean();
+        }
+
+        Vehicle getVehicle() {
+            return this.vehicle;
+        }
+
+        long getSequence() {
+            return this.sequence;
+        }
+
+        boolean isAvailable() {
+            return !this.sold.get();
+        }
+
+        boolean claim() {
+            return this.sold.compareAndSet(false, true);
+        }
+    }
+
+    static class Group {
+        private final long order;
+        private final ConcurrentSkipListSet<Listing> listings;
+
+        Group(long order) {
+            this.order = order;
+            this.listings = new ConcurrentSkipListSet<>(BY_PRICE);
+        }
+
+        long getOrder() {
+            return this.order;
+        }
+    }
+
+    private static final Comparator<Listing> BY_PRICE = Comparator
+            .comparingDouble((Listing listing) -> listing.price)
+            .thenComparingLong(Listing::getSequence);
+
+    private final Map<String, Listing> vehicles;
+    private final Map<String, Group> sellers;
+    private final Map<String, Group> brands;
+    private final AtomicLong nextListing;
+    private final AtomicLong nextGroup;
+    private final AtomicInteger available;
+    private final double priceBucketSize;
+
+    public ConcurrentVehicleRepositoryImpl() {
+        this(10_000);
+    }
+
+    public ConcurrentVehicleRepositoryImpl(double priceBucketSize) {
+        if (priceBucketSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.vehicles = new ConcurrentHashMap<>();
+        this.sellers = new ConcurrentHashMap<>();
+        this.brands = new ConcurrentHashMap<>();
+        this.nextListing = new AtomicLong();
+        this.nextGroup = new AtomicLong();
+        this.available = new AtomicInteger();
+        this.priceBucketSize = priceBucketSize;
+    }
+
+    @Override
+    public void addVehicleForSale(Vehicle vehicle, String sellerName) {
+        Listing previous = this.vehicles.get(vehicle.getId());
+        if (previous != null && this.claim(previous)) {
+            this.unlink(previous);
+        }
+        vehicle.setSeller(sellerName);
+        Listing listing = new Listing(vehicle, this.nextListing.getAndIncrement());
+        this.available.incrementAndGet();
+        previous = this.vehicles.put(vehicle.getId(), listing);
+        if (previous != null && this.claim(previous)) {
+            this.unlink(previous);
+        }
+        this.link(this.sellers, listing.seller, listing);
+        this.link(this.brands, listing.brand, listing);
+        if (!listing.isAvailable()) {
+            this.unlink(listing);
+        }
+    }
+
+    private boolean claim(Listing listing) {
+        if (listing.claim()) {
+            this.available.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void link(Map<String, Group> index, String key, Listing listing) {
+        index.compute(key, (k, group) -> {
+            if (group == null) {
+                group = new Group(this.nextGroup.getAndIncrement());
+            }
+            group.listings.add(listing);
+            return group;
+        });
+    }
+
+    private static void unlink(Map<String, Group> index, String key, Listing listing) {
+        index.computeIfPresent(key, (k, group) -> {
+            group.listings.remove(listing);
+            return group.listings.isEmpty() ? null : group;
+        });
+    }
+
+    private void unlink(Listing listing) {
+        this.vehicles.remove(listing.getVehicle().getId(), listing);
+        unlink(this.sellers, listing.seller, listing);
+        unlink(this.brands, listing.brand, listing);
+    }
+
+    @Override
+    public void removeVehicle(String vehicleId) {
+        Listing listing = this.vehicles.get(vehicleId);
+        if (listing == null || !this.claim(listing)) {
+            throw new IllegalArgumentException();
+        }
+        this.unlink(listing);
+    }
+
+    @Override
+    public int size() {
+        return this.available.get();
+    }
+
+    @Override
+    public boolean contains(Vehicle vehicle) {
+        Listing listing = this.vehicles.get(vehicle.getId());
+        return listing != null && listing.isAvailable();
+    }
+
+    private List<Listing> available() {
+        return this.vehicles.values()
+                .stream()
+                .filter(Listing::isAvailable)
+                .collect(toList());
+    }
+
+    @Override
+    public Iterable<Vehicle> getVehicles(List<String> keywords) {
+        return this.available()
+                .stream()
+                .filter(listing -> {
+                    Vehicle vehicle = listing.getVehicle();
+                    return keywords.contains(vehicle.getBrand()) ||
+                            keywords.contains(vehicle.getColor()) ||
+                            keywords.contains(vehicle.getLocation()) ||
+                            keywords.contains(vehicle.getModel());
+                })
+                .sorted(Comparator.comparing((Listing listing) -> !listing.getVehicle().getIsVIP())
+                        .thenComparing(BY_PRICE))
+                .map(Listing::getVehicle)
+                .collect(toList());
+    }
+
+    @Override
+    public Iterable<Vehicle> getVehiclesBySeller(String sellerName) {
+        Group group = this.sellers.get(sellerName);
+        if (group == null) {
+            throw new IllegalArgumentException();
+        }
+        return group.listings.stream()
+                .filter(Listing::isAvailable)
+                .sorted(Comparator.comparingLong(Listing::getSequence))
+                .map(Listing::getVehicle)
+                .collect(toList());
+    }
+
+    @Override
+    public Iterable<Vehicle> getVehiclesInPriceRange(double lowerBound, double upperBound) {
+        return this.available()
+                .stream()
+                .filter(listing -> listing.getVehicle().getPrice() >= lowerBound && listing.getVehicle().getPrice() <= upperBound)
+                .sorted(Comparator.comparingInt((Listing listing) -> listing.getVehicle().getHorsepower()).reversed()
+                        .thenComparingLong(Listing::getSequence))
+                .map(Listing::getVehicle)
+                .collect(toList());
+    }
+
+    @Override
+    public Map<String, List<Vehicle>> getAllVehiclesGroupedByBrand() {
+        Map<String, List<Vehicle>> grouped = new LinkedHashMap<>();
+        this.brands.entrySet()
+                .stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().getOrder()))
+                .forEach(entry -> {
+                    List<Vehicle> brandVehicles = entry.getValue().listings.stream()
+                            .filter(Listing::isAvailable)
+                            .map(Listing::getVehicle)
+                            .collect(toList());
+                    if (!brandVehicles.isEmpty()) {
+                        grouped.put(entry.getKey(), brandVehicles);
+                    }
+                });
+        if (grouped.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        return grouped;
+    }
+
+    @Override
+    public Iterable<Vehicle> getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName() {
+        return this.available()
+                .stream()
+                .sorted(Comparator.comparingInt((Listing listing) -> listing.getVehicle().getHorsepower()).reversed()
+                        .thenComparingDouble(listing -> listing.getVehicle().getPrice())
+                        .thenComparing(listing -> listing.getVehicle().getSeller())
+                        .thenComparingLong(Listing::getSequence))
+                .map(Listing::getVehicle)
+                .collect(toList());
+    }
+
+    @Override
+    public Vehicle buyCheapestFromSeller(String sellerName) {
+        Group group = this.sellers.get(sellerName);
+        if (group == null) {
+            throw new IllegalArgumentException();
+        }
+        for (Listing listing : group.listings) {
+            if (this.claim(listing)) {
+                this.unlink(listing);
+                return listing.getVehicle();
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    @Override
+    public Map<String, Map<String, Integer>> getFacetCounts(List<String> keywords) {
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+        result.put(VehicleFacetIndex.BRAND, new LinkedHashMap<>());
+        result.put(VehicleFacetIndex.COLOR, new LinkedHashMap<>());
+        result.put(VehicleFacetIndex.LOCATION, new LinkedHashMap<>());
+        result.put(VehicleFacetIndex.MODEL, new LinkedHashMap<>());
+        result.put(VehicleFacetIndex.PRICE, new LinkedHashMap<>());
+
+        List<Vehicle> matches = new ArrayList<>();
+        for (Listing listing : this.available()) {
+            Vehicle vehicle = listing.getVehicle();
+            if (keywords == null || keywords.isEmpty() ||
+                    keywords.contains(vehicle.getBrand()) ||
+                    keywords.contains(vehicle.getColor()) ||
+                    keywords.contains(vehicle.getLocation()) ||
+                    keywords.contains(vehicle.getModel())) {
+                matches.add(vehicle);
+            }
+        }
+        matches.sort(Comparator.comparingDouble(Vehicle::getPrice));
+        for (Vehicle vehicle : matches) {
+            result.get(VehicleFacetIndex.BRAND).merge(vehicle.getBrand(), 1, Integer::sum);
+            result.get(VehicleFacetIndex.COLOR).merge(vehicle.getColor(), 1, Integer::sum);
+            result.get(VehicleFacetIndex.LOCATION).merge(vehicle.getLocation(), 1, Integer::sum);
+            result.get(VehicleFacetIndex.MODEL).merge(vehicle.getModel(), 1, Integer::sum);
+            String bucket = VehicleFacetIndex.getPriceBucket(vehicle.getPrice(), this.priceBucketSize);
+            result.get(VehicleFacetIndex.PRICE).merge(bucket, 1, Integer::sum);
+        }
+        result.replaceAll((facet, counts) -> VehicleFacetIndex.PRICE.equals(facet) ? counts : orderByCount(counts));
+        return result;
+    }
+
+    private static Map<String, Integer> orderByCount(Map<String, Integer> counts) {
+        Map<String, Integer> ordered = new LinkedHashMap<>();
+        counts.entrySet()
+                .stream()
+                .sorted((o1, o2) -> Integer.compare(o2.getValue(), o1.getValue()))
+                .forEach(entry -> ordered.put(entry.getKey(), entry.getValue()));
+        return ordered;
+    }
+}
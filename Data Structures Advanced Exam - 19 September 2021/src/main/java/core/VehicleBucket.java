@@ -0,0 +1,111 @@
+package core;
+
+import models.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class VehicleBucket implements Iterable<Vehicle> {
+
+    static final int INLINE_CAPACITY = 8;
+
+    private static final long OBJECT_BYTES = 16;
+    private static final long REFERENCE_BYTES = 8;
+    private static final long MAP_ENTRY_BYTES = 56;
+
+    private Vehicle[] inline;
+    private Map<String, Vehicle> spilled;
+    private int size;
+
+    VehicleBucket() {
+        this.inline = new Vehicle[2];
+    }
+
+    void put(Vehicle vehicle) {
+        if (this.spilled != null) {
+            this.spilled.put(vehicle.getId(), vehicle);
+            this.size = this.spilled.size();
+            return;
+        }
+        int index = this.indexOf(vehicle.getId());
+        if (index != -1) {
+            this.inline[index] = vehicle;
+            return;
+        }
+        if (this.size == INLINE_CAPACITY) {
+            this.spilled = new LinkedHashMap<>();
+            for (int i = 0; i < this.size; i++) {
+                this.spilled.put(this.inline[i].getId(), this.inline[i]);
+            }
+            this.inline = null;
+            this.put(vehicle);
+            return;
+        }
+        if (this.size == this.inline.length) {
+            this.inline = Arrays.copyOf(this.inline, Math.min(this.size * 2, INLINE_CAPACITY));
+        }
+        this.inline[this.size++] = vehicle;
+    }
+
+    void remove(String vehicleId) {
+        if (this.spilled != null) {
+            this.spilled.remove(vehicleId);
+            this.size = this.spilled.size();
+            if (this.size <= INLINE_CAPACITY / 2) {
+                this.inline = this.spilled.values().toArray(new Vehicle[INLINE_CAPACITY / 2]);
+                this.spilled = null;
+            }
+            return;
+        }
+        int index = this.indexOf(vehicleId);
+        if (index == -1) {
+            return;
+        }
+        System.arraycopy(this.inline, index + 1, this.inline, index, this.size - index - 1);
+        this.inline[--this.size] = null;
+    }
+
+    private int indexOf(String vehicleId) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.inline[i].getId().equals(vehicleId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    List<Vehicle> toList() {
+        if (this.spilled != null) {
+            return new ArrayList<>(this.spilled.values());
+        }
+        return new ArrayList<>(Arrays.asList(this.inline).subList(0, this.size));
+    }
+
+    @Override
+    public Iterator<Vehicle> iterator() {
+        if (this.spilled != null) {
+            return Collections.unmodifiableCollection(this.spilled.values()).iterator();
+        }
+        return Collections.unmodifiableList(Arrays.asList(this.inline).subList(0, this.size)).iterator();
+    }
+
+    long estimateBytes() {
+        if (this.spilled != null) {
+            return OBJECT_BYTES * 2 + this.size * MAP_ENTRY_BYTES;
+        }
+        return OBJECT_BYTES * 2 + this.inline.length * REFERENCE_BYTES;
+    }
+}
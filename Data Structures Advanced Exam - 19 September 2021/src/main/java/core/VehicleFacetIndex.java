@@ -0,0 +1,223 @@
+package core;
+
+import models.Vehicle;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+class VehicleFacetIndex {
+
+    static final String BRAND = "brand";
+    static final String COLOR = "color";
+    static final String LOCATION = "location";
+    static final String MODEL = "model";
+    static final String PRICE = "price";
+
+    private static final long OBJECT_BYTES = 16;
+    private static final long MAP_ENTRY_BYTES = 56;
+
+    static class Facet {
+        private final String name;
+        private final Function<Vehicle, String> value;
+        private final Map<String, Integer> valueIds;
+        private final List<String> values;
+        private final List<BitSet> bitmaps;
+        private final Deque<Integer> freeIds;
+        private int[] counts;
+        private int[] slotValues;
+
+        Facet(String name, Function<Vehicle, String> value) {
+            this.name = name;
+            this.value = value;
+            this.valueIds = new HashMap<>();
+            this.values = new ArrayList<>();
+            this.bitmaps = new ArrayList<>();
+            this.freeIds = new ArrayDeque<>();
+            this.counts = new int[16];
+            this.slotValues = new int[16];
+        }
+
+        void add(int slot, Vehicle vehicle) {
+            String key = this.value.apply(vehicle);
+            Integer id = this.valueIds.get(key);
+            if (id == null) {
+                id = this.newId(key);
+            }
+            if (slot >= this.slotValues.length) {
+                this.slotValues = Arrays.copyOf(this.slotValues, Math.max(slot + 1, this.slotValues.length * 2));
+            }
+            this.slotValues[slot] = id;
+            this.bitmaps.get(id).set(slot);
+            this.counts[id]++;
+        }
+
+        private int newId(String key) {
+            int id;
+            if (this.freeIds.isEmpty()) {
+                id = this.values.size();
+                this.values.add(key);
+                this.bitmaps.add(new BitSet());
+                if (id == this.counts.length) {
+                    this.counts = Arrays.copyOf(this.counts, id * 2);
+                }
+            } else {
+                id = this.freeIds.pop();
+                this.values.set(id, key);
+                this.bitmaps.set(id, new BitSet());
+            }
+            this.valueIds.put(key, id);
+            return id;
+        }
+
+        void remove(int slot) {
+            int id = this.slotValues[slot];
+            this.bitmaps.get(id).clear(slot);
+            if (--this.counts[id] == 0) {
+                this.valueIds.remove(this.values.get(id));
+                this.values.set(id, null);
+                this.bitmaps.set(id, null);
+                this.freeIds.push(id);
+            }
+        }
+
+        long estimateBytes() {
+            long bytes = (long) this.slotValues.length * Integer.BYTES + (long) this.counts.length * Integer.BYTES;
+            bytes += (long) this.valueIds.size() * MAP_ENTRY_BYTES;
+            for (BitSet bitmap : this.bitmaps) {
+                if (bitmap != null) {
+                    bytes += OBJECT_BYTES + bitmap.size() / Byte.SIZE;
+                }
+            }
+            return bytes;
+        }
+
+        void or(String key, BitSet target) {
+            Integer id = this.valueIds.get(key);
+            if (id != null) {
+                target.or(this.bitmaps.get(id));
+            }
+        }
+    }
+
+    private final double priceBucketSize;
+    private final Map<String, Integer> slots;
+    private final Deque<Integer> freeSlots;
+    private final Facet[] keywordFacets;
+    private final Facet priceFacet;
+    private int nextSlot;
+
+    VehicleFacetIndex(double priceBucketSize) {
+        if (priceBucketSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.priceBucketSize = priceBucketSize;
+        this.slots = new HashMap<>();
+        this.freeSlots = new ArrayDeque<>();
+        this.keywordFacets = new Facet[]{
+                new Facet(BRAND, Vehicle::getBrand),
+                new Facet(COLOR, Vehicle::getColor),
+                new Facet(LOCATION, Vehicle::getLocation),
+                new Facet(MODEL, Vehicle::getModel)
+        };
+        this.priceFacet = new Facet(PRICE, vehicle -> getPriceBucket(vehicle.getPrice(), this.priceBucketSize));
+    }
+
+    static String getPriceBucket(double price, double priceBucketSize) {
+        long index = (long) Math.floor(price / priceBucketSize);
+        return BigDecimal.valueOf(priceBucketSize)
+                .multiply(BigDecimal.valueOf(index))
+                .stripTrailingZeros()
+                .toPlainString();
+    }
+
+    void add(Vehicle vehicle) {
+        int slot = this.freeSlots.isEmpty() ? this.nextSlot++ : this.freeSlots.pop();
+        this.slots.put(vehicle.getId(), slot);
+        for (Facet facet : this.keywordFacets) {
+            facet.add(slot, vehicle);
+        }
+        this.priceFacet.add(slot, vehicle);
+    }
+
+    void remove(Vehicle vehicle) {
+        int slot = this.slots.remove(vehicle.getId());
+        for (Facet facet : this.keywordFacets) {
+            facet.remove(slot);
+        }
+        this.priceFacet.remove(slot);
+        this.freeSlots.push(slot);
+    }
+
+    long estimateBytes() {
+        long bytes = (long) this.slots.size() * MAP_ENTRY_BYTES + (long) this.freeSlots.size() * OBJECT_BYTES;
+        for (Facet facet : this.keywordFacets) {
+            bytes += facet.estimateBytes();
+        }
+        return bytes + this.priceFacet.estimateBytes();
+    }
+
+    Map<String, Map<String, Integer>> getCounts(List<String> keywords) {
+        Map<String, Map<String, Integer>> result = new LinkedHashMap<>();
+        if (keywords == null || keywords.isEmpty()) {
+            for (Facet facet : this.keywordFacets) {
+                result.put(facet.name, toCounts(facet, facet.counts, false));
+            }
+            result.put(PRICE, toCounts(this.priceFacet, this.priceFacet.counts, true));
+            return result;
+        }
+
+        BitSet matches = new BitSet();
+        for (String keyword : keywords) {
+            for (Facet facet : this.keywordFacets) {
+                facet.or(keyword, matches);
+            }
+        }
+
+        int[][] counts = new int[this.keywordFacets.length][];
+        for (int i = 0; i < this.keywordFacets.length; i++) {
+            counts[i] = new int[this.keywordFacets[i].values.size()];
+        }
+        int[] priceCounts = new int[this.priceFacet.values.size()];
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            for (int i = 0; i < this.keywordFacets.length; i++) {
+                counts[i][this.keywordFacets[i].slotValues[slot]]++;
+            }
+            priceCounts[this.priceFacet.slotValues[slot]]++;
+        }
+
+        for (int i = 0; i < this.keywordFacets.length; i++) {
+            result.put(this.keywordFacets[i].name, toCounts(this.keywordFacets[i], counts[i], false));
+        }
+        result.put(PRICE, toCounts(this.priceFacet, priceCounts, true));
+        return result;
+    }
+
+    private static Map<String, Integer> toCounts(Facet facet, int[] counts, boolean orderByValue) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < facet.values.size(); id++) {
+            if (counts[id] > 0) {
+                ids.add(id);
+            }
+        }
+        if (orderByValue) {
+            ids.sort(Comparator.comparing(id -> new BigDecimal(facet.values.get(id))));
+        } else {
+            ids.sort((o1, o2) -> Integer.compare(counts[o2], counts[o1]));
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Integer id : ids) {
+            result.put(facet.values.get(id), counts[id]);
+        }
+        return result;
+    }
+}
@@ -25,4 +25,6 @@ public interface VehicleRepository {
     Iterable<Vehicle> getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName();
 
     Vehicle buyCheapestFromSeller(String sellerName);
+
+    Map<String, Map<String, Integer>> getFacetCounts(List<String> keywords);
 }
@@ -2,32 +2,101 @@ package core;
 
 import models.Vehicle;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import static java.util.stream.Collectors.toList;
 
 public class VehicleRepositoryImpl implements VehicleRepository {
 
+    private static final long MAP_ENTRY_BYTES = 56;
+    private static final long TREE_ENTRY_BYTES = 40;
+    private static final long TREE_SET_BYTES = 64;
+
+    private static class Listing {
+        private final Vehicle vehicle;
+        private final long sequence;
+        private final String seller;
+        private final String brand;
+        private final int horsepower;
+        private final double price;
+
+        private Listing(Vehicle vehicle, long sequence) {
+            this.vehicle = vehicle;
+            this.sequence = sequence;
+            this.seller = vehicle.getSeller();
+            this.brand = vehicle.getBrand();
+            this.horsepower = vehicle.getHorsepower();
+            this.price = vehicle.getPrice();
+        }
+    }
+
+    private static final Comparator<Listing> BY_PRICE = Comparator
+            .comparingDouble((Listing listing) -> listing.price)
+            .thenComparingLong(listing -> listing.sequence);
+
+    private static final Comparator<Listing> BY_HORSEPOWER_THEN_PRICE_THEN_SELLER = Comparator
+            .comparingInt((Listing listing) -> listing.horsepower).reversed()
+            .thenComparingDouble(listing -> listing.price)
+            .thenComparing(listing -> listing.seller)
+            .thenComparingLong(listing -> listing.sequence);
+
     private final Map<String, Vehicle> vehicles;
-    private final Map<String, Map<String, Vehicle>> sellers;
-    private final Map<String, Map<String, Vehicle>> brands;
+    private final Map<String, TreeSet<Listing>> sellers;
+    private final Map<String, VehicleBucket> sellerVehicles;
+    private final Map<String, TreeSet<Listing>> brands;
+    private final Map<String, List<Vehicle>> brandGroups;
+    private final Map<String, Listing> listings;
+    private final TreeSet<Listing> byHorsepowerThenPriceThenSeller;
+    private final TreeMap<Double, VehicleBucket> prices;
+    private final VehicleFacetIndex facets;
+    private long nextListing;
+    private Map<String, List<Vehicle>> groupedByBrand;
 
     public VehicleRepositoryImpl() {
+        this(10_000);
+    }
+
+    public VehicleRepositoryImpl(double priceBucketSize) {
         this.vehicles = new LinkedHashMap<>();
         this.sellers = new LinkedHashMap<>();
+        this.sellerVehicles = new HashMap<>();
         this.brands = new LinkedHashMap<>();
+        this.brandGroups = new HashMap<>();
+        this.listings = new HashMap<>();
+        this.byHorsepowerThenPriceThenSeller = new TreeSet<>(BY_HORSEPOWER_THEN_PRICE_THEN_SELLER);
+        this.prices = new TreeMap<>();
+        this.facets = new VehicleFacetIndex(priceBucketSize);
+    }
+
+    private long getListing(Vehicle vehicle) {
+        return this.listings.get(vehicle.getId()).sequence;
     }
 
     @Override
     public void addVehicleForSale(Vehicle vehicle, String sellerName) {
+        if (this.vehicles.containsKey(vehicle.getId())) {
+            this.removeVehicle(vehicle.getId());
+        }
         vehicle.setSeller(sellerName);
+        Listing listing = new Listing(vehicle, this.nextListing++);
         this.vehicles.put(vehicle.getId(), vehicle);
-        this.sellers.computeIfAbsent(sellerName, s -> new LinkedHashMap<>()).put(vehicle.getId(), vehicle);
-        this.brands.computeIfAbsent(vehicle.getBrand(), s -> new LinkedHashMap<>()).put(vehicle.getId(), vehicle);
+        this.listings.put(vehicle.getId(), listing);
+        this.sellers.computeIfAbsent(listing.seller, s -> new TreeSet<>(BY_PRICE)).add(listing);
+        this.sellerVehicles.computeIfAbsent(listing.seller, s -> new VehicleBucket()).put(vehicle);
+        this.brands.computeIfAbsent(listing.brand, s -> new TreeSet<>(BY_PRICE)).add(listing);
+        this.invalidateBrand(listing.brand);
+        this.byHorsepowerThenPriceThenSeller.add(listing);
+        this.prices.computeIfAbsent(listing.price, s -> new VehicleBucket()).put(vehicle);
+        this.facets.add(vehicle);
     }
 
     @Override
@@ -35,9 +104,40 @@ public class VehicleRepositoryImpl implements VehicleRepository {
         if (!this.vehicles.containsKey(vehicleId)) {
             throw new IllegalArgumentException();
         }
-        Vehicle vehicle = this.vehicles.remove(vehicleId);
-        this.sellers.get(vehicle.getSeller()).remove(vehicle.getId());
-        this.brands.get(vehicle.getBrand()).remove(vehicle.getId());
+        Listing listing = this.listings.remove(vehicleId);
+        TreeSet<Listing> sellerVehicles = this.sellers.get(listing.seller);
+        sellerVehicles.remove(listing);
+        if (sellerVehicles.isEmpty()) {
+            this.sellers.remove(listing.seller);
+        }
+        VehicleBucket sellerBucket = this.sellerVehicles.get(listing.seller);
+        sellerBucket.remove(vehicleId);
+        if (sellerBucket.isEmpty()) {
+            this.sellerVehicles.remove(listing.seller);
+        }
+
+        TreeSet<Listing> brandVehicles = this.brands.get(listing.brand);
+        brandVehicles.remove(listing);
+        if (brandVehicles.isEmpty()) {
+            this.brands.remove(listing.brand);
+        }
+        this.invalidateBrand(listing.brand);
+
+        this.byHorsepowerThenPriceThenSeller.remove(listing);
+
+        VehicleBucket samePrice = this.prices.get(listing.price);
+        samePrice.remove(vehicleId);
+        if (samePrice.isEmpty()) {
+            this.prices.remove(listing.price);
+        }
+
+        this.facets.remove(listing.vehicle);
+        this.vehicles.remove(vehicleId);
+    }
+
+    private void invalidateBrand(String brand) {
+        this.brandGroups.remove(brand);
+        this.groupedByBrand = null;
     }
 
     @Override
@@ -69,19 +169,24 @@ public class VehicleRepositoryImpl implements VehicleRepository {
 
     @Override
     public Iterable<Vehicle> getVehiclesBySeller(String sellerName) {
-        if (!this.sellers.containsKey(sellerName)) {
+        VehicleBucket sellerVehicles = this.sellerVehicles.get(sellerName);
+        if (sellerVehicles == null) {
             throw new IllegalArgumentException();
         }
-        return this.sellers.get(sellerName).values();
+        return sellerVehicles;
     }
 
     @Override
     public Iterable<Vehicle> getVehiclesInPriceRange(double lowerBound, double upperBound) {
-        return this.vehicles.values()
-                .stream()
-                .filter(vehicle -> vehicle.getPrice() >= lowerBound && vehicle.getPrice() <= upperBound)
-                .sorted(Comparator.comparingDouble(Vehicle::getHorsepower).reversed())
-                .collect(toList());
+        if (lowerBound > upperBound) {
+            return new ArrayList<>();
+        }
+        List<Vehicle> result = new ArrayList<>();
+        this.prices.subMap(lowerBound, true, upperBound, true)
+                .values()
+                .forEach(samePrice -> result.addAll(samePrice.toList()));
+        result.sort(Comparator.comparingInt(Vehicle::getHorsepower).reversed().thenComparing(this::getListing));
+        return result;
     }
 
     @Override
@@ -89,44 +194,74 @@ public class VehicleRepositoryImpl implements VehicleRepository {
         if (this.brands.isEmpty()) {
             throw new IllegalArgumentException();
         }
-        return this.brands.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> entry.getValue().values().stream().sorted(Comparator.comparingDouble(Vehicle::getPrice)).collect(toList()),
-                        (v1, v2) -> {
-                            throw new IllegalArgumentException();
-                        },
-                        LinkedHashMap::new
-                ));
+        if (this.groupedByBrand == null) {
+            Map<String, List<Vehicle>> grouped = new LinkedHashMap<>();
+            this.brands.forEach((brand, brandVehicles) -> grouped.put(brand, this.brandGroups.computeIfAbsent(brand,
+                    s -> Collections.unmodifiableList(toVehicles(brandVehicles)))));
+            this.groupedByBrand = Collections.unmodifiableMap(grouped);
+        }
+        return this.groupedByBrand;
     }
 
     @Override
     public Iterable<Vehicle> getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName() {
-        return this.vehicles.values()
+        return toVehicles(this.byHorsepowerThenPriceThenSeller);
+    }
+
+    public Iterable<Vehicle> getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName(int skip, int limit) {
+        return this.byHorsepowerThenPriceThenSeller
                 .stream()
-                .sorted((o1, o2) -> {
-                    if (o2.getHorsepower() == o1.getHorsepower()) {
-                        if (Double.compare(o1.getPrice(), o2.getPrice()) == 0) {
-                            return o1.getSeller().compareTo(o2.getSeller());
-                        }
-                        return Double.compare(o1.getPrice(), o2.getPrice());
-                    }
-                    return Integer.compare(o2.getHorsepower(), o1.getHorsepower());
-                })
+                .skip(skip)
+                .limit(limit)
+                .map(listing -> listing.vehicle)
                 .collect(toList());
     }
 
     @Override
     public Vehicle buyCheapestFromSeller(String sellerName) {
-        if (!this.sellers.containsKey(sellerName) || this.sellers.get(sellerName).isEmpty()) {
+        if (!this.sellers.containsKey(sellerName)) {
             throw new IllegalArgumentException();
         }
-        Vehicle vehicle = this.sellers.get(sellerName).values()
-                .stream()
-                .min(Comparator.comparingDouble(Vehicle::getPrice))
-                .orElseThrow(IllegalArgumentException::new);
+        Vehicle vehicle = this.sellers.get(sellerName).first().vehicle;
         this.removeVehicle(vehicle.getId());
         return vehicle;
     }
+
+    private static List<Vehicle> toVehicles(Collection<Listing> listings) {
+        List<Vehicle> vehicles = new ArrayList<>(listings.size());
+        for (Listing listing : listings) {
+            vehicles.add(listing.vehicle);
+        }
+        return vehicles;
+    }
+
+    @Override
+    public Map<String, Map<String, Integer>> getFacetCounts(List<String> keywords) {
+        return this.facets.getCounts(keywords);
+    }
+
+    public Map<String, Long> getMemoryUsage() {
+        long priceBytes = this.prices.values().stream().mapToLong(VehicleBucket::estimateBytes).sum();
+        long sellerBytes = this.sellerVehicles.values().stream().mapToLong(VehicleBucket::estimateBytes).sum();
+        long brandBytes = (long) this.brands.size() * TREE_SET_BYTES + (long) this.vehicles.size() * TREE_ENTRY_BYTES;
+
+        Map<String, Long> usage = new LinkedHashMap<>();
+        usage.put("vehicles", (long) this.vehicles.size());
+        usage.put("sellerBuckets", (long) this.sellers.size());
+        usage.put("brandBuckets", (long) this.brands.size());
+        usage.put("priceBuckets", (long) this.prices.size());
+        usage.put("vehicleBytes", (long) this.vehicles.size() * MAP_ENTRY_BYTES * 2);
+        usage.put("sellerBytes", sellerBytes + (long) this.sellers.size() * (MAP_ENTRY_BYTES * 2 + TREE_SET_BYTES)
+                + (long) this.vehicles.size() * TREE_ENTRY_BYTES);
+        usage.put("brandBytes", brandBytes + (long) this.brands.size() * MAP_ENTRY_BYTES);
+        usage.put("priceBytes", priceBytes + (long) this.prices.size() * TREE_ENTRY_BYTES);
+        usage.put("orderedBytes", (long) this.byHorsepowerThenPriceThenSeller.size() * TREE_ENTRY_BYTES);
+        usage.put("facetBytes", this.facets.estimateBytes());
+        usage.put("totalBytes", usage.entrySet()
+                .stream()
+                .filter(entry -> entry.getKey().endsWith("Bytes"))
+                .mapToLong(Map.Entry::getValue)
+                .sum());
+        return usage;
+    }
 }
@@ -0,0 +1,223 @@
+package core;
+
+import models.Vehicle;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentVehicleRepositoryTests {
+    private static final int THREADS = 8;
+
+    private VehicleRepository vehicleRepository;
+
+    @Before
+    public void setup() {
+        this.vehicleRepository = new ConcurrentVehicleRepositoryImpl();
+    }
+
+    @Test
+    public void testBuyCheapest_WithCorrectData_ShouldReturnCheapestFirst() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 100.01, false);
+        Vehicle vehicle_2 = new Vehicle("2", "Brand", "Model", "Location", "Color", 100, 100.00, false);
+        Vehicle vehicle_3 = new Vehicle("3", "Brand", "Model", "Location", "Color", 100, 100.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_3, "1");
+
+        assertEquals(vehicle_2, this.vehicleRepository.buyCheapestFromSeller("1"));
+        assertEquals(vehicle_3, this.vehicleRepository.buyCheapestFromSeller("1"));
+        assertEquals(vehicle_1, this.vehicleRepository.buyCheapestFromSeller("1"));
+        assertEquals(0, this.vehicleRepository.size());
+        assertThrows(IllegalArgumentException.class, () -> this.vehicleRepository.buyCheapestFromSeller("1"));
+        assertThrows(IllegalArgumentException.class, () -> this.vehicleRepository.getVehiclesBySeller("1"));
+    }
+
+    @Test
+    public void testGetVehiclesBySeller_WithRemovedVehicle_ShouldKeepListingOrder() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 300.00, false);
+        Vehicle vehicle_2 = new Vehicle("2", "Brand", "Model", "Location", "Color", 100, 100.00, false);
+        Vehicle vehicle_3 = new Vehicle("3", "Brand", "Model", "Location", "Color", 100, 200.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_3, "1");
+        this.vehicleRepository.removeVehicle("2");
+
+        List<Vehicle> vehicles = StreamSupport.stream(this.vehicleRepository.getVehiclesBySeller("1").spliterator(), false)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of(vehicle_1, vehicle_3), vehicles);
+        assertEquals(List.of(vehicle_3, vehicle_1), this.vehicleRepository.getAllVehiclesGroupedByBrand().get("Brand"));
+        assertThrows(IllegalArgumentException.class, () -> this.vehicleRepository.removeVehicle("2"));
+    }
+
+    @Test
+    public void testAddVehicleForSale_WithRelistedVehicle_ShouldMatchSingleThreadedRepository() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 100.00, false);
+        Vehicle vehicle_2 = new Vehicle("2", "Brand", "Model", "Location", "Color", 100, 200.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "alice");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "bob");
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "bob");
+
+        assertThrows(IllegalArgumentException.class, () -> this.vehicleRepository.getVehiclesBySeller("alice"));
+        assertEquals(List.of(vehicle_2, vehicle_1), StreamSupport.stream(this.vehicleRepository.getVehiclesBySeller("bob").spliterator(), false)
+                .collect(Collectors.toList()));
+        assertEquals(2, this.vehicleRepository.size());
+
+        vehicle_1.setPrice(300.00);
+        vehicle_2.setPrice(50.00);
+        assertEquals(vehicle_1, this.vehicleRepository.buyCheapestFromSeller("bob"));
+        assertEquals(vehicle_2, this.vehicleRepository.buyCheapestFromSeller("bob"));
+        assertThrows(IllegalArgumentException.class, () -> this.vehicleRepository.getVehiclesBySeller("bob"));
+        assertEquals(0, this.vehicleRepository.size());
+    }
+
+    @Test
+    public void testGroupedByBrandAndFacets_ShouldMatchSingleThreadedRepository() {
+        VehicleRepository expected = new VehicleRepositoryImpl(0.5);
+        VehicleRepository actual = new ConcurrentVehicleRepositoryImpl(0.5);
+        String[] brands = {"Skoda", "Audi", "Volvo", "BMW", "Kia", "Fiat", "Opel", "Seat"};
+
+        for (VehicleRepository repository : List.of(expected, actual)) {
+            for (int i = 0; i < 40; i++) {
+                repository.addVehicleForSale(new Vehicle(i + "", brands[i % brands.length], "Model", "Location",
+                        "Color" + i % 3, 100, (i * 7 % 13) / 4.0, false), "Seller" + i % 5);
+            }
+            for (int i = 0; i < 40; i += brands.length) {
+                repository.removeVehicle(i + "");
+            }
+            repository.buyCheapestFromSeller("Seller1");
+            repository.addVehicleForSale(new Vehicle("40", "Skoda", "Model", "Location", "Color0", 100, 0.2, false), "Seller0");
+        }
+
+        assertEquals(expected.size(), actual.size());
+        assertEquals(List.copyOf(expected.getAllVehiclesGroupedByBrand().keySet()),
+                List.copyOf(actual.getAllVehiclesGroupedByBrand().keySet()));
+        assertEquals(toIds(expected.getAllVehiclesGroupedByBrand()), toIds(actual.getAllVehiclesGroupedByBrand()));
+        assertEquals(expected.getFacetCounts(List.of()), actual.getFacetCounts(List.of()));
+        assertEquals(List.copyOf(expected.getFacetCounts(List.of()).get("price").keySet()),
+                List.copyOf(actual.getFacetCounts(List.of()).get("price").keySet()));
+    }
+
+    @Test
+    public void testBuyCheapest_WithConcurrentBuyers_ShouldSellEveryVehicleExactlyOnce() throws Exception {
+        int count = 20_000;
+        for (int i = 0; i < count; i++) {
+            this.vehicleRepository.addVehicleForSale(new Vehicle(i + "", "BMW", "X5", "Sofia", "Blue", 100, i % 997, false), "George");
+        }
+
+        Set<String> sold = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                double lastPrice = Double.NEGATIVE_INFINITY;
+                while (true) {
+                    Vehicle vehicle;
+                    try {
+                        vehicle = this.vehicleRepository.buyCheapestFromSeller("George");
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                    if (!sold.add(vehicle.getId())) {
+                        duplicates.incrementAndGet();
+                    }
+                    if (vehicle.getPrice() < lastPrice) {
+                        outOfOrder.incrementAndGet();
+                    }
+                    lastPrice = vehicle.getPrice();
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(0, duplicates.get());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(count, sold.size());
+        assertEquals(0, this.vehicleRepository.size());
+        assertThrows(IllegalArgumentException.class, () -> this.vehicleRepository.getVehiclesBySeller("George"));
+    }
+
+    @Test
+    public void testRemoveAndBuy_WithConcurrentCallers_ShouldClaimEveryVehicleOnce() throws Exception {
+        int count = 10_000;
+        for (int i = 0; i < count; i++) {
+            this.vehicleRepository.addVehicleForSale(new Vehicle(i + "", "Audi", "A4", "Sofia", "Red", 100, i, false), "Seller" + i % 4);
+        }
+
+        Map<String, Integer> claims = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < count; i++) {
+                    try {
+                        if (thread % 2 == 0) {
+                            String id = ((i * 31 + thread) % count) + "";
+                            this.vehicleRepository.removeVehicle(id);
+                            claims.merge(id, 1, Integer::sum);
+                        } else {
+                            Vehicle vehicle = this.vehicleRepository.buyCheapestFromSeller("Seller" + i % 4);
+                            claims.merge(vehicle.getId(), 1, Integer::sum);
+                        }
+                    } catch (IllegalArgumentException ignored) {
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertTrue(claims.values().stream().allMatch(claimed -> claimed == 1));
+        assertEquals(count, claims.size() + this.vehicleRepository.size());
+        for (String id : claims.keySet()) {
+            Assert.assertFalse(this.vehicleRepository.contains(new Vehicle(id, "Audi", "A4", "Sofia", "Red", 100, 0, false)));
+        }
+    }
+
+    private static Map<String, List<String>> toIds(Map<String, List<Vehicle>> grouped) {
+        return grouped.entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        entry -> entry.getValue().stream().map(Vehicle::getId).collect(Collectors.toList())));
+    }
+}
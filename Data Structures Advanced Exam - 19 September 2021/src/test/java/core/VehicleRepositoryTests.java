@@ -337,4 +337,198 @@ public class VehicleRepositoryTests {
             Assert.assertEquals(expected[counter++], vehicle.getId());
         }
     }
+
+    @Test
+    public void test_getAllVehiclesOrdered_shouldStayOrdered_afterRemoveAndBuy() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand", "Model", "Location", "Color", 300, 100.00, false);
+        Vehicle vehicle_2 = new Vehicle("2", "Brand", "Model", "Location", "Color", 200, 50.00, false);
+        Vehicle vehicle_3 = new Vehicle("3", "Brand", "Model", "Location", "Color", 300, 90.00, false);
+        Vehicle vehicle_4 = new Vehicle("4", "Brand", "Model", "Location", "Color", 100, 10.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_3, "2");
+        this.vehicleRepository.addVehicleForSale(vehicle_4, "2");
+
+        this.vehicleRepository.removeVehicle(vehicle_1.getId());
+        Assert.assertEquals(vehicle_4, this.vehicleRepository.buyCheapestFromSeller("2"));
+
+        String[] expected = {vehicle_3.getId(), vehicle_2.getId()};
+
+        List<Vehicle> vehicles = StreamSupport.stream(this.vehicleRepository.getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName().spliterator(), false)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(2, vehicles.size());
+        int counter = 0;
+        for (Vehicle vehicle : vehicles) {
+            Assert.assertEquals(expected[counter++], vehicle.getId());
+        }
+
+        List<Vehicle> page = StreamSupport.stream(((VehicleRepositoryImpl) this.vehicleRepository).getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName(1, 5).spliterator(), false)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals(vehicle_2, page.get(0));
+    }
+
+    @Test
+    public void test_getAllVehiclesGroupedByBrand_shouldReflectChanges_betweenRepeatedCalls() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand_1", "Model", "Location", "Color", 100, 200.00, false);
+        Vehicle vehicle_2 = new Vehicle("2", "Brand_2", "Model", "Location", "Color", 100, 100.00, false);
+        Vehicle vehicle_3 = new Vehicle("3", "Brand_1", "Model", "Location", "Color", 100, 150.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "2");
+
+        Map<String, List<Vehicle>> first = this.vehicleRepository.getAllVehiclesGroupedByBrand();
+        Assert.assertSame(first, this.vehicleRepository.getAllVehiclesGroupedByBrand());
+        assertThrows(UnsupportedOperationException.class, () -> first.get("Brand_1").add(vehicle_3));
+
+        this.vehicleRepository.addVehicleForSale(vehicle_3, "3");
+
+        Map<String, List<Vehicle>> second = this.vehicleRepository.getAllVehiclesGroupedByBrand();
+        Assert.assertEquals(List.of(vehicle_3, vehicle_1), second.get("Brand_1"));
+        Assert.assertSame(first.get("Brand_2"), second.get("Brand_2"));
+    }
+
+    @Test
+    public void test_getFacetCounts_shouldCountMatchesPerFacet_andFollowRemovals() {
+        Vehicle vehicle_1 = new Vehicle("1", "BMW", "X5", "Sofia", "Blue", 100, 15_000.00, false);
+        Vehicle vehicle_2 = new Vehicle("2", "BMW", "X3", "Plovdiv", "Black", 100, 25_000.00, false);
+        Vehicle vehicle_3 = new Vehicle("3", "Audi", "A4", "Sofia", "Blue", 100, 18_000.00, false);
+        Vehicle vehicle_4 = new Vehicle("4", "Audi", "A6", "Varna", "Red", 100, 40_000.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_3, "2");
+        this.vehicleRepository.addVehicleForSale(vehicle_4, "2");
+
+        Map<String, Map<String, Integer>> facets = this.vehicleRepository.getFacetCounts(List.of("Blue", "BMW"));
+
+        Assert.assertEquals(Map.of("BMW", 2, "Audi", 1), facets.get("brand"));
+        Assert.assertEquals(Map.of("Blue", 2, "Black", 1), facets.get("color"));
+        Assert.assertEquals(Map.of("Sofia", 2, "Plovdiv", 1), facets.get("location"));
+        Assert.assertEquals(List.of("10000", "20000"), List.copyOf(facets.get("price").keySet()));
+        Assert.assertEquals(Integer.valueOf(2), facets.get("price").get("10000"));
+
+        this.vehicleRepository.buyCheapestFromSeller("1");
+
+        facets = this.vehicleRepository.getFacetCounts(List.of());
+        Assert.assertEquals(Map.of("BMW", 1, "Audi", 2), facets.get("brand"));
+        Assert.assertEquals(Map.of("10000", 1, "20000", 1, "40000", 1), facets.get("price"));
+    }
+
+    @Test
+    public void test_getFacetCounts_shouldKeepFractionalPriceBucketsApart() {
+        VehicleRepository repository = new VehicleRepositoryImpl(0.5);
+        repository.addVehicleForSale(new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 0.2, false), "1");
+        repository.addVehicleForSale(new Vehicle("2", "Brand", "Model", "Location", "Color", 100, 0.7, false), "1");
+        repository.addVehicleForSale(new Vehicle("3", "Brand", "Model", "Location", "Color", 100, 0.9, false), "1");
+        repository.addVehicleForSale(new Vehicle("4", "Brand", "Model", "Location", "Color", 100, 2.0, false), "1");
+
+        Map<String, Integer> prices = repository.getFacetCounts(List.of()).get("price");
+
+        Assert.assertEquals(List.of("0", "0.5", "2"), List.copyOf(prices.keySet()));
+        Assert.assertEquals(List.of(1, 2, 1), List.copyOf(prices.values()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void test_getVehiclesBySeller_shouldThrowException_whenSellerSoldEverything() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 100.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.buyCheapestFromSeller("1");
+
+        this.vehicleRepository.getVehiclesBySeller("1");
+    }
+
+    @Test
+    public void test_getMemoryUsage_shouldDropEmptyBuckets_whenVehiclesAreRemoved() {
+        VehicleRepositoryImpl repository = new VehicleRepositoryImpl();
+        Map<String, Long> empty = repository.getMemoryUsage();
+
+        for (int i = 0; i < 100; i++) {
+            repository.addVehicleForSale(new Vehicle(i + "", "Brand" + i % 10, "Model", "Location", "Color", 100, i, false), "Seller" + i % 20);
+        }
+
+        List<String> sellerVehicles = StreamSupport.stream(repository.getVehiclesBySeller("Seller0").spliterator(), false)
+                .map(Vehicle::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of("0", "20", "40", "60", "80"), sellerVehicles);
+
+        Map<String, Long> full = repository.getMemoryUsage();
+        Assert.assertEquals(Long.valueOf(20), full.get("sellerBuckets"));
+        Assert.assertEquals(Long.valueOf(10), full.get("brandBuckets"));
+        Assert.assertTrue(full.get("totalBytes") > empty.get("totalBytes"));
+
+        for (int i = 0; i < 100; i++) {
+            repository.removeVehicle(i + "");
+        }
+
+        Map<String, Long> drained = repository.getMemoryUsage();
+        Assert.assertEquals(Long.valueOf(0), drained.get("sellerBuckets"));
+        Assert.assertEquals(Long.valueOf(0), drained.get("brandBuckets"));
+        Assert.assertEquals(Long.valueOf(0), drained.get("priceBuckets"));
+        Assert.assertTrue(drained.get("totalBytes") < full.get("totalBytes"));
+    }
+
+    @Test
+    public void test_getVehiclesBySeller_shouldKeepInsertionOrder_acrossBucketGrowth() {
+        for (int i = 0; i < 20; i++) {
+            this.vehicleRepository.addVehicleForSale(new Vehicle(i + "", "Brand", "Model", "Location", "Color", 100, 100 - i, false), "1");
+        }
+        for (int i = 0; i < 15; i++) {
+            this.vehicleRepository.buyCheapestFromSeller("1");
+        }
+
+        List<String> vehicles = StreamSupport.stream(this.vehicleRepository.getVehiclesBySeller("1").spliterator(), false)
+                .map(Vehicle::getId)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(List.of("0", "1", "2", "3", "4"), vehicles);
+    }
+
+    @Test
+    public void test_getVehiclesBySeller_shouldReturnLiveView() {
+        this.vehicleRepository.addVehicleForSale(new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 300.00, false), "1");
+        Iterable<Vehicle> sellerVehicles = this.vehicleRepository.getVehiclesBySeller("1");
+        Assert.assertSame(sellerVehicles, this.vehicleRepository.getVehiclesBySeller("1"));
+
+        for (int i = 2; i <= 12; i++) {
+            this.vehicleRepository.addVehicleForSale(new Vehicle(i + "", "Brand", "Model", "Location", "Color", 100, 300 - i, false), "1");
+        }
+        this.vehicleRepository.buyCheapestFromSeller("1");
+        this.vehicleRepository.removeVehicle("2");
+
+        List<String> vehicles = StreamSupport.stream(sellerVehicles.spliterator(), false)
+                .map(Vehicle::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of("1", "3", "4", "5", "6", "7", "8", "9", "10", "11"), vehicles);
+        Assert.assertThrows(UnsupportedOperationException.class, () -> sellerVehicles.iterator().remove());
+    }
+
+    @Test
+    public void test_addVehicleForSale_shouldRelistVehicle_afterPriceAndHorsepowerChange() {
+        Vehicle vehicle_1 = new Vehicle("1", "Brand", "Model", "Location", "Color", 100, 100.00, false);
+        Vehicle vehicle_2 = new Vehicle("2", "Brand", "Model", "Location", "Color", 100, 200.00, false);
+
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+        this.vehicleRepository.addVehicleForSale(vehicle_2, "1");
+
+        vehicle_1.setPrice(300.00);
+        vehicle_1.setHorsepower(50);
+        this.vehicleRepository.addVehicleForSale(vehicle_1, "1");
+
+        Assert.assertEquals(2, this.vehicleRepository.size());
+        Assert.assertFalse(this.vehicleRepository.getVehiclesInPriceRange(50, 150).iterator().hasNext());
+        Assert.assertEquals(List.of(vehicle_1), StreamSupport.stream(this.vehicleRepository.getVehiclesInPriceRange(250, 350).spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of(vehicle_2, vehicle_1), StreamSupport.stream(this.vehicleRepository.getAllVehiclesOrderedByHorsepowerDescendingThenByPriceThenBySellerName().spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of(vehicle_2, vehicle_1), this.vehicleRepository.getAllVehiclesGroupedByBrand().get("Brand"));
+
+        Assert.assertEquals(vehicle_2, this.vehicleRepository.buyCheapestFromSeller("1"));
+        this.vehicleRepository.removeVehicle(vehicle_1.getId());
+        Assert.assertEquals(0, this.vehicleRepository.size());
+    }
 }
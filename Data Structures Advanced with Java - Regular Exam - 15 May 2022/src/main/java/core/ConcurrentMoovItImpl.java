@@ -0,0 +1,142 @@
+package core;
+
+import models.Journey;
+import models.Route;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class ConcurrentMoovItImpl implements MoovIt {
+
+    private final MoovItImpl moovIt;
+    private final ReentrantLock lock;
+    private final Map<String, AtomicLong> choices;
+    private final Set<String> pending;
+
+    public ConcurrentMoovItImpl() {
+        this.moovIt = new MoovItImpl();
+        this.lock = new ReentrantLock();
+        this.choices = new ConcurrentHashMap<>();
+        this.pending = ConcurrentHashMap.newKeySet();
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        this.lock.lock();
+        try {
+            return action.get();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private <T> T folded(Supplier<T> action) {
+        return this.locked(() -> {
+            this.foldPending();
+            return action.get();
+        });
+    }
+
+    public void fold() {
+        this.locked(() -> {
+            this.foldPending();
+            return null;
+        });
+    }
+
+    private void foldPending() {
+        Iterator<String> iterator = this.pending.iterator();
+        while (iterator.hasNext()) {
+            String routeId = iterator.next();
+            iterator.remove();
+            AtomicLong counter = this.choices.get(routeId);
+            if (counter == null) {
+                continue;
+            }
+            int delta = (int) counter.getAndSet(0);
+            if (delta != 0) {
+                this.moovIt.addPopularity(routeId, delta);
+            }
+        }
+    }
+
+    @Override
+    public void addRoute(Route route) {
+        this.locked(() -> {
+            this.moovIt.addRoute(route);
+            this.choices.put(route.getId(), new AtomicLong());
+            return null;
+        });
+    }
+
+    @Override
+    public void addRoutes(List<Route> routes) {
+        this.locked(() -> {
+            this.moovIt.addRoutes(routes);
+            for (Route route : routes) {
+                this.choices.put(route.getId(), new AtomicLong());
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void removeRoute(String routeId) {
+        this.locked(() -> {
+            this.moovIt.removeRoute(routeId);
+            this.choices.remove(routeId);
+            this.pending.remove(routeId);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean contains(Route route) {
+        return this.locked(() -> this.moovIt.contains(route));
+    }
+
+    @Override
+    public int size() {
+        return this.locked(this.moovIt::size);
+    }
+
+    @Override
+    public Route getRoute(String routeId) {
+        return this.folded(() -> this.moovIt.getRoute(routeId));
+    }
+
+    @Override
+    public void chooseRoute(String routeId) {
+        AtomicLong counter = this.choices.get(routeId);
+        if (counter == null) {
+            throw new IllegalArgumentException();
+        }
+        counter.incrementAndGet();
+        this.pending.add(routeId);
+    }
+
+    @Override
+    public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
+        return this.folded(() -> this.moovIt.searchRoutes(startPoint, endPoint));
+    }
+
+    @Override
+    public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
+        return this.folded(() -> this.moovIt.getFavoriteRoutes(destinationPoint));
+    }
+
+    @Override
+    public Iterable<Route> getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints() {
+        return this.folded(this.moovIt::getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints);
+    }
+
+    @Override
+    public Journey planJourney(String startPoint, String endPoint) {
+        return this.locked(() -> this.moovIt.planJourney(startPoint, endPoint));
+    }
+}
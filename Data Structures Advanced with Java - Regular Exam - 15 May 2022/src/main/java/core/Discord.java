@@ -7,6 +7,8 @@ import java.util.List;
 public interface Discord {
     void sendMessage(Message message);
 
+    void sendMessages(List<Message> messages);
+
     boolean contains(Message message);
 
     int size();
@@ -17,6 +19,8 @@ public interface Discord {
 
     void reactToMessage(String messageId, String reaction);
 
+    void removeReaction(String messageId, String reaction);
+
     Iterable<Message> getChannelMessages(String channel);
 
     Iterable<Message> getMessagesByReactions(List<String> reactions);
@@ -26,4 +30,8 @@ public interface Discord {
     Iterable<Message> getTop3MostReactedMessages();
 
     Iterable<Message> getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent();
+
+    Subscription subscribe(String channel, Integer fromTimestamp);
+
+    Subscription subscribe(String channel, Integer fromTimestamp, int capacity, Subscription.Backpressure backpressure);
 }
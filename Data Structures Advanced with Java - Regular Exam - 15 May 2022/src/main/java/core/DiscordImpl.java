@@ -1,26 +1,398 @@
 package core;
 
+import models.ChannelEvent;
 import models.Message;
+import models.NameDictionary;
+import models.ReactionList;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class DiscordImpl implements Discord {
 
-    private final Map<String, Message> messages;
+    private static final long NODE_BYTES = 160;
+
+    private static final int DEFAULT_SUBSCRIPTION_CAPACITY = 1024;
+
+    static class MessageNode {
+        private final Message message;
+        private final ReactionList reactions;
+        private final int channelId;
+        private final int timestamp;
+        private final int contentLength;
+        private final long sequence;
+        private final long estimatedBytes;
+        private int reactionCount;
+        private long position;
+        private boolean released;
+        private MessageNode previous;
+        private MessageNode next;
+
+        MessageNode(Message message, ReactionList reactions, int channelId, long sequence) {
+            this.message = message;
+            this.reactions = reactions;
+            this.channelId = channelId;
+            this.timestamp = message.getTimestamp();
+            this.contentLength = message.getContentLength();
+            this.sequence = sequence;
+            this.reactionCount = reactions.size();
+            this.estimatedBytes = NODE_BYTES + 2L * (message.getId().length()
+                    + (message instanceof LoggedMessage ? 0 : this.contentLength));
+        }
+
+        Message getMessage() {
+            return this.message;
+        }
+
+        long getSequence() {
+            return this.sequence;
+        }
+
+        int getChannelId() {
+            return this.channelId;
+        }
+    }
+
+    static class ChannelList {
+        private MessageNode head;
+        private MessageNode tail;
+        private int size;
+
+        void add(MessageNode node) {
+            node.previous = this.tail;
+            if (this.tail == null) {
+                this.head = node;
+            } else {
+                this.tail.next = node;
+            }
+            this.tail = node;
+            this.size++;
+        }
+
+        void remove(MessageNode node) {
+            if (node.previous == null) {
+                this.head = node.next;
+            } else {
+                node.previous.next = node.next;
+            }
+            if (node.next == null) {
+                this.tail = node.previous;
+            } else {
+                node.next.previous = node.previous;
+            }
+            node.previous = null;
+            node.next = null;
+            this.size--;
+        }
+
+        boolean isEmpty() {
+            return this.size == 0;
+        }
+
+        List<Message> toList() {
+            List<Message> result = new ArrayList<>(this.size);
+            for (MessageNode node = this.head; node != null; node = node.next) {
+                result.add(node.message);
+            }
+            return result;
+        }
+    }
+
+    private final Map<String, MessageNode> messages;
+    private final MessageLog log;
+    private final Object owner;
+    private final NameDictionary channelNames;
+    private final NameDictionary reactionNames;
+    private final Map<String, List<Subscription>> subscribers;
+    private ReentrantLock lock;
+    private Queue<Runnable> outbox;
+    private long nextPosition;
+    private Map<Integer, ChannelList> channels;
+    private Map<Integer, Set<MessageNode>> reactions;
+    private TreeMap<Integer, Set<MessageNode>> timestamps;
+    private TreeSet<MessageNode> mostReacted;
+    private TreeSet<MessageNode> leaderboard;
+    private long nextSequence;
+    private RetentionPolicy retention;
+    private Set<Integer> channelsOverCap;
+    private int sendsSinceEviction;
+    private int latestTimestamp;
+    private long estimatedBytes;
 
     public DiscordImpl() {
+        this(null);
+    }
+
+    // With a log, sent messages are stored as log-backed copies: getMessage returns
+    // the copy, and a deleted message keeps its content on the heap.
+    public DiscordImpl(MessageLog log) {
         this.messages = new LinkedHashMap<>();
+        this.log = log;
+        this.owner = new Object();
+        this.channelNames = new NameDictionary();
+        this.reactionNames = new NameDictionary();
+        this.subscribers = new ConcurrentHashMap<>();
+        this.lock = new ReentrantLock();
+    }
+
+    void guardWith(ReentrantLock lock, Queue<Runnable> outbox) {
+        this.lock = lock;
+        this.outbox = outbox;
+    }
+
+    private Map<Integer, ChannelList> getChannels() {
+        if (this.channels == null) {
+            this.channels = new HashMap<>();
+            this.messages.values().forEach(this::indexChannel);
+        }
+        return this.channels;
+    }
+
+    private Map<Integer, Set<MessageNode>> getReactionPostings() {
+        if (this.reactions == null) {
+            this.reactions = new HashMap<>();
+            this.messages.values().forEach(this::indexReactions);
+        }
+        return this.reactions;
+    }
+
+    private TreeMap<Integer, Set<MessageNode>> getTimestamps() {
+        if (this.timestamps == null) {
+            this.timestamps = new TreeMap<>();
+            this.messages.values().forEach(this::indexTimestamp);
+        }
+        return this.timestamps;
+    }
+
+    private void ensureLeaderboards() {
+        if (this.leaderboard == null) {
+            this.mostReacted = new TreeSet<>(Comparator.comparingInt((MessageNode node) -> node.reactionCount).reversed()
+                    .thenComparingLong(MessageNode::getSequence));
+            this.leaderboard = new TreeSet<>(Comparator.comparingInt((MessageNode node) -> node.reactionCount).reversed()
+                    .thenComparingInt(node -> node.timestamp)
+                    .thenComparingInt(node -> node.contentLength)
+                    .thenComparingLong(MessageNode::getSequence));
+            this.mostReacted.addAll(this.messages.values());
+            this.leaderboard.addAll(this.messages.values());
+        }
+    }
+
+    private void indexTimestamp(MessageNode node) {
+        this.timestamps.computeIfAbsent(node.timestamp, s -> new LinkedHashSet<>()).add(node);
+    }
+
+    private void indexChannel(MessageNode node) {
+        this.lock.lock();
+        try {
+            this.channels.computeIfAbsent(node.getChannelId(), s -> new ChannelList()).add(node);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void unindexChannel(MessageNode node) {
+        this.lock.lock();
+        try {
+            node.released = true;
+            if (this.channels != null) {
+                ChannelList channelMessages = this.channels.get(node.getChannelId());
+                channelMessages.remove(node);
+                if (channelMessages.isEmpty()) {
+                    this.channels.remove(node.getChannelId());
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void indexReactions(MessageNode node) {
+        for (int reaction : node.reactions.distinctIds()) {
+            this.indexReaction(node, reaction);
+        }
+    }
+
+    private void indexReaction(MessageNode node, int reaction) {
+        this.reactions.computeIfAbsent(reaction, s -> new HashSet<>()).add(node);
+    }
+
+    private void unindexReaction(MessageNode node, int reaction) {
+        Set<MessageNode> posting = this.reactions.get(reaction);
+        if (posting != null) {
+            posting.remove(node);
+            if (posting.isEmpty()) {
+                this.reactions.remove(reaction);
+            }
+        }
+    }
+
+    private void unindex(MessageNode node) {
+        this.unindexChannel(node);
+        if (this.timestamps != null) {
+            Set<MessageNode> sameTimestamp = this.timestamps.get(node.timestamp);
+            if (sameTimestamp != null) {
+                sameTimestamp.remove(node);
+                if (sameTimestamp.isEmpty()) {
+                    this.timestamps.remove(node.timestamp);
+                }
+            }
+        }
+        if (this.leaderboard != null) {
+            this.mostReacted.remove(node);
+            this.leaderboard.remove(node);
+        }
+        if (this.reactions != null) {
+            for (int reaction : node.reactions.distinctIds()) {
+                this.unindexReaction(node, reaction);
+            }
+        }
     }
 
     @Override
     public void sendMessage(Message message) {
-        this.messages.put(message.getId(), message);
+        this.sendMessage(message, this.nextSequence++);
+    }
+
+    @Override
+    public void sendMessages(List<Message> messages) {
+        for (Message message : messages) {
+            this.sendMessage(message);
+        }
+    }
+
+    void sendMessage(Message message, long sequence) {
+        if ((message instanceof LoggedMessage && ((LoggedMessage) message).getLog() != this.log)
+                || !message.isAttachableTo(this.owner)) {
+            message = copyOf(message);
+        }
+        if (this.log != null && !(message instanceof LoggedMessage)) {
+            message = new LoggedMessage(message, this.log);
+        }
+        int channelId = this.channelNames.encode(message.getChannel());
+        String channel = this.channelNames.decode(channelId);
+        if (message.getChannel() != channel) {
+            message.setChannel(channel);
+        }
+        ReactionList reactions = new ReactionList(this.reactionNames, message.getReactions());
+        message.attach(this.owner, reactions);
+        MessageNode node = new MessageNode(message, reactions, channelId, sequence);
+        node.position = this.nextPosition++;
+        MessageNode previous = this.messages.put(message.getId(), node);
+        if (previous != null) {
+            this.release(previous);
+        }
+        if (this.channels != null) {
+            this.indexChannel(node);
+        }
+        if (this.timestamps != null) {
+            this.indexTimestamp(node);
+        }
+        if (this.leaderboard != null) {
+            this.mostReacted.add(node);
+            this.leaderboard.add(node);
+        }
+        if (this.reactions != null && !reactions.isEmpty()) {
+            this.indexReactions(node);
+        }
+        this.estimatedBytes += node.estimatedBytes;
+        if (this.messages.size() == 1 || node.timestamp > this.latestTimestamp) {
+            this.latestTimestamp = node.timestamp;
+        }
+        if (this.retention != null) {
+            this.trackRetention(node);
+        }
+        if (!this.subscribers.isEmpty()) {
+            this.publish(node, new ChannelEvent(ChannelEvent.Type.MESSAGE, message, null));
+        }
+    }
+
+    public void setRetentionPolicy(RetentionPolicy retention) {
+        this.retention = retention;
+        this.channelsOverCap = null;
+        if (retention != null && retention.getMaxMessagesPerChannel() > 0) {
+            this.channelsOverCap = new HashSet<>();
+            this.getChannels().forEach((channel, channelMessages) -> {
+                if (channelMessages.size > retention.getMaxMessagesPerChannel()) {
+                    this.channelsOverCap.add(channel);
+                }
+            });
+        }
+        this.evict();
+    }
+
+    private void trackRetention(MessageNode node) {
+        if (this.channelsOverCap != null
+                && this.getChannels().get(node.getChannelId()).size > this.retention.getMaxMessagesPerChannel()) {
+            this.channelsOverCap.add(node.getChannelId());
+        }
+        if (++this.sendsSinceEviction >= this.retention.getBatchSize()) {
+            this.evict();
+        }
+    }
+
+    public int evict() {
+        this.sendsSinceEviction = 0;
+        if (this.retention == null || this.messages.isEmpty()) {
+            return 0;
+        }
+        int before = this.messages.size();
+
+        if (this.retention.getMaxAge() > 0) {
+            long cutoff = (long) this.latestTimestamp - this.retention.getMaxAge();
+            if (cutoff > Integer.MIN_VALUE) {
+                this.evictRange(this.getTimestamps().headMap((int) cutoff, false));
+            }
+        }
+
+        if (this.channelsOverCap != null) {
+            for (int channel : this.channelsOverCap) {
+                ChannelList channelMessages = this.getChannels().get(channel);
+                while (channelMessages != null && channelMessages.size > this.retention.getMaxMessagesPerChannel()) {
+                    this.evictNode(channelMessages.head);
+                }
+            }
+            this.channelsOverCap.clear();
+        }
+
+        if (this.retention.getMaxMemoryBytes() > 0) {
+            TreeMap<Integer, Set<MessageNode>> index = this.getTimestamps();
+            while (this.estimatedBytes > this.retention.getMaxMemoryBytes() && !index.isEmpty()) {
+                this.evictRange(index.headMap(index.firstKey(), true));
+            }
+        }
+
+        return before - this.messages.size();
+    }
+
+    private void evictRange(Map<Integer, Set<MessageNode>> range) {
+        List<MessageNode> evicted = new ArrayList<>();
+        range.values().forEach(evicted::addAll);
+        range.clear();
+        for (MessageNode node : evicted) {
+            this.evictNode(node);
+        }
+    }
+
+    private void evictNode(MessageNode node) {
+        this.messages.remove(node.getMessage().getId(), node);
+        this.release(node);
+    }
+
+    long getSequence(String messageId) {
+        return this.messages.get(messageId).getSequence();
+    }
+
+    boolean hasMessage(String messageId) {
+        return this.messages.containsKey(messageId);
     }
 
     @Override
     public boolean contains(Message message) {
-        return this.messages.containsKey(message.getId());
+        return this.hasMessage(message.getId());
     }
 
     @Override
@@ -33,7 +405,7 @@ public class DiscordImpl implements Discord {
         if (!this.messages.containsKey(messageId)) {
             throw new IllegalArgumentException();
         }
-        return this.messages.get(messageId);
+        return this.messages.get(messageId).getMessage();
     }
 
     @Override
@@ -41,7 +413,27 @@ public class DiscordImpl implements Discord {
         if (!this.messages.containsKey(messageId)) {
             throw new IllegalArgumentException();
         }
-        this.messages.remove(messageId);
+        this.release(this.messages.remove(messageId));
+    }
+
+    private static Message copyOf(Message message) {
+        Message copy = new Message(message.getId(), message.getContent(), message.getTimestamp(), message.getChannel());
+        copy.setReactions(message.getReactions());
+        return copy;
+    }
+
+    private void release(MessageNode node) {
+        this.estimatedBytes -= node.estimatedBytes;
+        this.unindex(node);
+        MessageNode current = this.messages.get(node.getMessage().getId());
+        if (current != null && current.getMessage() == node.getMessage()) {
+            return;
+        }
+        node.getMessage().detach(this.owner);
+        if (this.log != null && node.getMessage() instanceof LoggedMessage
+                && ((LoggedMessage) node.getMessage()).getLog() == this.log) {
+            ((LoggedMessage) node.getMessage()).unlog();
+        }
     }
 
     @Override
@@ -49,74 +441,255 @@ public class DiscordImpl implements Discord {
         if (!this.messages.containsKey(messageId)) {
             throw new IllegalArgumentException();
         }
-        this.messages.get(messageId).getReactions().add(reaction);
+        MessageNode node = this.messages.get(messageId);
+        if (this.leaderboard != null) {
+            this.mostReacted.remove(node);
+            this.leaderboard.remove(node);
+        }
+        node.reactions.add(reaction);
+        node.reactionCount++;
+        if (this.leaderboard != null) {
+            this.mostReacted.add(node);
+            this.leaderboard.add(node);
+        }
+        if (this.reactions != null) {
+            this.indexReaction(node, this.reactionNames.encode(reaction));
+        }
+        if (!this.subscribers.isEmpty()) {
+            this.publish(node, new ChannelEvent(ChannelEvent.Type.REACTION, node.getMessage(), reaction));
+        }
+    }
+
+    @Override
+    public void removeReaction(String messageId, String reaction) {
+        MessageNode node = this.messages.get(messageId);
+        if (node == null || !node.reactions.contains(reaction)) {
+            throw new IllegalArgumentException();
+        }
+        if (this.leaderboard != null) {
+            this.mostReacted.remove(node);
+            this.leaderboard.remove(node);
+        }
+        node.reactions.remove(reaction);
+        node.reactionCount--;
+        if (this.leaderboard != null) {
+            this.mostReacted.add(node);
+            this.leaderboard.add(node);
+        }
+        if (this.reactions != null && !node.reactions.contains(reaction)) {
+            this.unindexReaction(node, this.reactionNames.find(reaction));
+        }
+    }
+
+    private void publish(MessageNode node, ChannelEvent event) {
+        String channel = this.channelNames.decode(node.getChannelId());
+        List<Subscription> channelSubscribers = channel == null ? null : this.subscribers.get(channel);
+        if (channelSubscribers == null) {
+            return;
+        }
+        for (Subscription subscription : channelSubscribers) {
+            if (!subscription.accepts(node.timestamp)) {
+                continue;
+            }
+            if (this.outbox == null) {
+                subscription.publish(event);
+            } else {
+                this.outbox.add(() -> subscription.publish(event));
+            }
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Integer fromTimestamp) {
+        return this.subscribe(channel, fromTimestamp, DEFAULT_SUBSCRIPTION_CAPACITY, Subscription.Backpressure.DROP_OLDEST);
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Integer fromTimestamp, int capacity, Subscription.Backpressure backpressure) {
+        if (channel == null) {
+            throw new IllegalArgumentException();
+        }
+        Replay replay;
+        this.lock.lock();
+        try {
+            this.getChannels();
+            replay = new Replay(this.channelNames.find(channel), fromTimestamp, this.nextPosition - 1);
+        } finally {
+            this.lock.unlock();
+        }
+        Subscription subscription = new Subscription(channel, fromTimestamp, capacity, backpressure, () -> this.guarded(replay));
+        subscription.onClose(() -> this.subscribers.computeIfPresent(channel, (name, channelSubscribers) -> {
+            channelSubscribers.remove(subscription);
+            return channelSubscribers.isEmpty() ? null : channelSubscribers;
+        }));
+        this.subscribers.compute(channel, (name, channelSubscribers) -> {
+            List<Subscription> updated = channelSubscribers == null ? new CopyOnWriteArrayList<>() : channelSubscribers;
+            updated.add(subscription);
+            return updated;
+        });
+        return subscription;
+    }
+
+    int getChannelNameCount() {
+        return this.channelNames.size();
+    }
+
+    int getSubscriptionCount() {
+        return this.subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    private ChannelEvent guarded(Supplier<ChannelEvent> replay) {
+        this.lock.lock();
+        try {
+            return replay.get();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private class Replay implements Supplier<ChannelEvent> {
+        private final int channelId;
+        private final int fromTimestamp;
+        private final long lastPosition;
+        private long replayedPosition;
+        private MessageNode next;
+        private boolean exhausted;
+
+        Replay(int channelId, Integer fromTimestamp, long lastPosition) {
+            this.channelId = channelId;
+            this.fromTimestamp = fromTimestamp == null ? Integer.MIN_VALUE : fromTimestamp;
+            this.lastPosition = lastPosition;
+            this.replayedPosition = -1;
+        }
+
+        @Override
+        public ChannelEvent get() {
+            if (this.exhausted) {
+                return null;
+            }
+            MessageNode node = this.next != null && !this.next.released ? this.next : this.seek();
+            while (node != null && node.position <= this.lastPosition) {
+                MessageNode current = node;
+                node = node.next;
+                this.replayedPosition = current.position;
+                if (current.timestamp >= this.fromTimestamp) {
+                    this.next = node;
+                    return new ChannelEvent(ChannelEvent.Type.MESSAGE, current.getMessage(), null);
+                }
+            }
+            this.exhausted = true;
+            this.next = null;
+            return null;
+        }
+
+        private MessageNode seek() {
+            ChannelList channelMessages = channels.get(this.channelId);
+            MessageNode node = channelMessages == null ? null : channelMessages.head;
+            while (node != null && node.position <= this.replayedPosition) {
+                node = node.next;
+            }
+            return node;
+        }
     }
 
     @Override
     public Iterable<Message> getChannelMessages(String channel) {
-        List<Message> messageList = this.messages.values()
-                .stream()
-                .filter(message -> message.getChannel().equals(channel))
-                .collect(Collectors.toList());
-        if (messageList.isEmpty()) {
+        ChannelList channelMessages = this.getChannels().get(this.channelNames.find(channel));
+        if (channelMessages == null) {
             throw new IllegalArgumentException();
         }
-        return messageList;
+        return channelMessages.toList();
     }
 
     @Override
     public Iterable<Message> getMessagesByReactions(List<String> reactions) {
-        return this.messages.values()
-                .stream()
-                .filter(message -> new HashSet<>(message.getReactions()).containsAll(reactions))
-                .sorted((o1, o2) -> {
-                    if (o2.getReactions().size() == o1.getReactions().size()) {
-                        return Integer.compare(o1.getTimestamp(), o2.getTimestamp());
-                    }
-                    return Integer.compare(o2.getReactions().size(), o1.getReactions().size());
-                })
+        Map<Integer, Set<MessageNode>> index = this.getReactionPostings();
+        List<Set<MessageNode>> postings = new ArrayList<>();
+        for (String reaction : new HashSet<>(reactions)) {
+            Set<MessageNode> posting = index.get(this.reactionNames.find(reaction));
+            if (posting == null) {
+                return new ArrayList<>();
+            }
+            postings.add(posting);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+
+        Collection<MessageNode> candidates = postings.isEmpty() ? this.messages.values() : postings.get(0);
+        List<MessageNode> matches = new ArrayList<>();
+        for (MessageNode node : candidates) {
+            boolean inAll = true;
+            for (int i = 1; i < postings.size() && inAll; i++) {
+                inAll = postings.get(i).contains(node);
+            }
+            if (inAll) {
+                matches.add(node);
+            }
+        }
+
+        matches.sort((o1, o2) -> {
+            if (o1.reactionCount == o2.reactionCount) {
+                if (o1.timestamp == o2.timestamp) {
+                    return Long.compare(o1.getSequence(), o2.getSequence());
+                }
+                return Integer.compare(o1.timestamp, o2.timestamp);
+            }
+            return Integer.compare(o2.reactionCount, o1.reactionCount);
+        });
+        return matches.stream()
+                .map(MessageNode::getMessage)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Iterable<Message> getMessageInTimeRange(Integer lowerBound, Integer upperBound) {
-        Map<String, List<Message>> channelMessages = new LinkedHashMap<>();
-        this.messages.values()
-                .stream()
-                .filter(message -> message.getTimestamp() >= lowerBound && message.getTimestamp() <= upperBound)
-                .forEach(message -> {
-                    channelMessages.computeIfAbsent(message.getChannel(), s -> new ArrayList<>());
-                    channelMessages.get(message.getChannel()).add(message);
-                });
-        return channelMessages.values()
-                .stream()
-                .sorted((o1, o2) -> Integer.compare(o2.size(), o1.size()))
+        if (lowerBound > upperBound) {
+            return new ArrayList<>();
+        }
+        Map<Integer, List<MessageNode>> channelMessages = new HashMap<>();
+        for (Set<MessageNode> sameTimestamp : this.getTimestamps().subMap(lowerBound, true, upperBound, true).values()) {
+            for (MessageNode node : sameTimestamp) {
+                channelMessages.computeIfAbsent(node.getChannelId(), s -> new ArrayList<>()).add(node);
+            }
+        }
+        List<List<MessageNode>> groups = new ArrayList<>(channelMessages.values());
+        for (List<MessageNode> group : groups) {
+            group.sort(Comparator.comparingLong(MessageNode::getSequence));
+        }
+        groups.sort((o1, o2) -> {
+            if (o1.size() == o2.size()) {
+                return Long.compare(o1.get(0).getSequence(), o2.get(0).getSequence());
+            }
+            return Integer.compare(o2.size(), o1.size());
+        });
+        return groups.stream()
                 .flatMap(Collection::stream)
+                .map(MessageNode::getMessage)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Iterable<Message> getTop3MostReactedMessages() {
-        return this.messages.values()
-                .stream()
-                .sorted((o1, o2) -> Integer.compare(o2.getReactions().size(), o1.getReactions().size()))
-                .limit(3)
-                .collect(Collectors.toList());
+        this.ensureLeaderboards();
+        List<Message> result = new ArrayList<>(3);
+        Iterator<MessageNode> iterator = this.mostReacted.iterator();
+        while (result.size() < 3 && iterator.hasNext()) {
+            result.add(iterator.next().getMessage());
+        }
+        return result;
     }
 
     @Override
     public Iterable<Message> getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent() {
-        return this.messages.values()
+        return this.getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent(0, Integer.MAX_VALUE);
+    }
+
+    public Iterable<Message> getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent(int skip, int limit) {
+        this.ensureLeaderboards();
+        return this.leaderboard
                 .stream()
-                .sorted((o1, o2) -> {
-                    if (o2.getReactions().size() == o1.getReactions().size()) {
-                        if (o1.getTimestamp() == o2.getTimestamp()) {
-                            return Integer.compare(o1.getContent().length(), o2.getContent().length());
-                        }
-                        return Integer.compare(o1.getTimestamp(), o2.getTimestamp());
-                    }
-                    return Integer.compare(o2.getReactions().size(), o1.getReactions().size());
-                })
+                .skip(skip)
+                .limit(limit)
+                .map(MessageNode::getMessage)
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,404 @@
+package core;
+
+import models.Journey;
+import models.Route;
+
+import java.util.*;
+
+public class JourneyPlanner {
+
+    public enum Mode {
+        DIJKSTRA,
+        CONTRACTION_HIERARCHY
+    }
+
+    static class Segment {
+        private final TreeMap<Double, Set<String>> routes;
+
+        Segment() {
+            this.routes = new TreeMap<>();
+        }
+
+        double getWeight() {
+            return this.routes.firstKey();
+        }
+
+        Set<String> getRouteIds() {
+            return this.routes.firstEntry().getValue();
+        }
+    }
+
+    static class Shortcut {
+        private final double weight;
+        private final int middle;
+
+        Shortcut(double weight, int middle) {
+            this.weight = weight;
+            this.middle = middle;
+        }
+    }
+
+    static class Visit {
+        private final int node;
+        private final double distance;
+
+        Visit(int node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+    }
+
+    private static final int WITNESS_SETTLE_LIMIT = 64;
+
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+    private final List<Map<Integer, Segment>> segments;
+    private int[] rank;
+    private List<Map<Integer, Shortcut>> upward;
+    private List<Map<Integer, Shortcut>> downward;
+
+    public JourneyPlanner() {
+        this.ids = new HashMap<>();
+        this.names = new ArrayList<>();
+        this.segments = new ArrayList<>();
+    }
+
+    private int idOf(String locationPoint) {
+        Integer id = this.ids.get(locationPoint);
+        if (id == null) {
+            id = this.names.size();
+            this.ids.put(locationPoint, id);
+            this.names.add(locationPoint);
+            this.segments.add(new HashMap<>());
+        }
+        return id;
+    }
+
+    private static double segmentWeight(Route route) {
+        return route.getDistance() / (route.getLocationPoints().size() - 1);
+    }
+
+    public void addRoute(Route route) {
+        List<String> locationPoints = route.getLocationPoints();
+        if (locationPoints == null || locationPoints.size() < 2) {
+            return;
+        }
+        double weight = segmentWeight(route);
+        for (int i = 1; i < locationPoints.size(); i++) {
+            int from = this.idOf(locationPoints.get(i - 1));
+            int to = this.idOf(locationPoints.get(i));
+            if (from != to) {
+                this.segments.get(from).computeIfAbsent(to, k -> new Segment())
+                        .routes.computeIfAbsent(weight, k -> new LinkedHashSet<>()).add(route.getId());
+            }
+        }
+        this.rank = null;
+    }
+
+    public void removeRoute(Route route) {
+        List<String> locationPoints = route.getLocationPoints();
+        if (locationPoints == null || locationPoints.size() < 2) {
+            return;
+        }
+        double weight = segmentWeight(route);
+        for (int i = 1; i < locationPoints.size(); i++) {
+            Integer from = this.ids.get(locationPoints.get(i - 1));
+            Integer to = this.ids.get(locationPoints.get(i));
+            if (from == null || to == null) {
+                continue;
+            }
+            Map<Integer, Segment> outgoing = this.segments.get(from);
+            Segment segment = outgoing.get(to);
+            if (segment == null) {
+                continue;
+            }
+            Set<String> routeIds = segment.routes.get(weight);
+            if (routeIds != null) {
+                routeIds.remove(route.getId());
+                if (routeIds.isEmpty()) {
+                    segment.routes.remove(weight);
+                }
+            }
+            if (segment.routes.isEmpty()) {
+                outgoing.remove(to);
+            }
+        }
+        this.rank = null;
+    }
+
+    public Journey plan(String startPoint, String endPoint, Mode mode) {
+        Integer source = this.ids.get(startPoint);
+        Integer target = this.ids.get(endPoint);
+        if (source == null || target == null) {
+            throw new IllegalArgumentException();
+        }
+        List<Integer> path = mode == Mode.CONTRACTION_HIERARCHY
+                ? this.searchHierarchy(source, target)
+                : this.searchGraph(source, target);
+        if (path == null) {
+            throw new IllegalArgumentException();
+        }
+        return this.toJourney(path);
+    }
+
+    private Journey toJourney(List<Integer> path) {
+        List<String> locationPoints = new ArrayList<>(path.size());
+        List<String> routeIds = new ArrayList<>(path.size() - 1);
+        double distance = 0;
+        locationPoints.add(this.names.get(path.get(0)));
+        for (int i = 1; i < path.size(); i++) {
+            Segment segment = this.segments.get(path.get(i - 1)).get(path.get(i));
+            Set<String> candidates = segment.getRouteIds();
+            String previous = routeIds.isEmpty() ? null : routeIds.get(routeIds.size() - 1);
+            routeIds.add(candidates.contains(previous) ? previous : candidates.iterator().next());
+            locationPoints.add(this.names.get(path.get(i)));
+            distance += segment.getWeight();
+        }
+        return new Journey(locationPoints, routeIds, distance);
+    }
+
+    private List<Integer> searchGraph(int source, int target) {
+        double[] distances = new double[this.names.size()];
+        int[] previous = new int[this.names.size()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        distances[source] = 0;
+
+        PriorityQueue<Visit> queue = new PriorityQueue<>(Comparator.comparingDouble((Visit visit) -> visit.distance));
+        queue.offer(new Visit(source, 0));
+        while (!queue.isEmpty()) {
+            Visit visit = queue.poll();
+            if (visit.distance > distances[visit.node]) {
+                continue;
+            }
+            if (visit.node == target) {
+                break;
+            }
+            for (Map.Entry<Integer, Segment> entry : this.segments.get(visit.node).entrySet()) {
+                double distance = visit.distance + entry.getValue().getWeight();
+                if (distance < distances[entry.getKey()]) {
+                    distances[entry.getKey()] = distance;
+                    previous[entry.getKey()] = visit.node;
+                    queue.offer(new Visit(entry.getKey(), distance));
+                }
+            }
+        }
+
+        if (distances[target] == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int node = target; node != -1; node = previous[node]) {
+            path.addFirst(node);
+        }
+        return path;
+    }
+
+    private void contract() {
+        int size = this.names.size();
+        List<Map<Integer, Shortcut>> outgoing = new ArrayList<>(size);
+        List<Map<Integer, Shortcut>> incoming = new ArrayList<>(size);
+        this.upward = new ArrayList<>(size);
+        this.downward = new ArrayList<>(size);
+        for (int node = 0; node < size; node++) {
+            outgoing.add(new HashMap<>());
+            incoming.add(new HashMap<>());
+            this.upward.add(new HashMap<>());
+            this.downward.add(new HashMap<>());
+        }
+        for (int node = 0; node < size; node++) {
+            for (Map.Entry<Integer, Segment> entry : this.segments.get(node).entrySet()) {
+                Shortcut edge = new Shortcut(entry.getValue().getWeight(), -1);
+                outgoing.get(node).put(entry.getKey(), edge);
+                incoming.get(entry.getKey()).put(node, edge);
+            }
+        }
+
+        int[] depth = new int[size];
+        int[] order = new int[size];
+        PriorityQueue<Visit> queue = new PriorityQueue<>(Comparator.comparingDouble((Visit visit) -> visit.distance));
+        for (int node = 0; node < size; node++) {
+            queue.offer(new Visit(node, priority(node, outgoing, incoming, depth)));
+        }
+        int next = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.poll().node;
+            double priority = priority(node, outgoing, incoming, depth);
+            if (!queue.isEmpty() && priority > queue.peek().distance) {
+                queue.offer(new Visit(node, priority));
+                continue;
+            }
+            this.contractNode(node, outgoing, incoming, depth);
+            order[node] = next++;
+        }
+        this.rank = order;
+    }
+
+    private static double priority(int node, List<Map<Integer, Shortcut>> outgoing,
+                                   List<Map<Integer, Shortcut>> incoming, int[] depth) {
+        int in = incoming.get(node).size();
+        int out = outgoing.get(node).size();
+        return (double) in * out - in - out + depth[node];
+    }
+
+    private void contractNode(int node, List<Map<Integer, Shortcut>> outgoing,
+                              List<Map<Integer, Shortcut>> incoming, int[] depth) {
+        Map<Integer, Shortcut> out = outgoing.get(node);
+        Map<Integer, Shortcut> in = incoming.get(node);
+        this.upward.get(node).putAll(out);
+        this.downward.get(node).putAll(in);
+
+        double longestOut = 0;
+        for (Shortcut edge : out.values()) {
+            longestOut = Math.max(longestOut, edge.weight);
+        }
+        for (Map.Entry<Integer, Shortcut> source : in.entrySet()) {
+            int from = source.getKey();
+            Map<Integer, Double> witnesses = witnessSearch(from, node, source.getValue().weight + longestOut, outgoing);
+            for (Map.Entry<Integer, Shortcut> target : out.entrySet()) {
+                int to = target.getKey();
+                if (to == from) {
+                    continue;
+                }
+                double weight = source.getValue().weight + target.getValue().weight;
+                Double witness = witnesses.get(to);
+                if (witness != null && witness <= weight) {
+                    continue;
+                }
+                Shortcut existing = outgoing.get(from).get(to);
+                if (existing == null || weight < existing.weight) {
+                    Shortcut shortcut = new Shortcut(weight, node);
+                    outgoing.get(from).put(to, shortcut);
+                    incoming.get(to).put(from, shortcut);
+                }
+            }
+        }
+
+        for (int from : in.keySet()) {
+            outgoing.get(from).remove(node);
+            depth[from] = Math.max(depth[from], depth[node] + 1);
+        }
+        for (int to : out.keySet()) {
+            incoming.get(to).remove(node);
+            depth[to] = Math.max(depth[to], depth[node] + 1);
+        }
+        out.clear();
+        in.clear();
+    }
+
+    private static Map<Integer, Double> witnessSearch(int source, int skipped, double limit,
+                                                      List<Map<Integer, Shortcut>> outgoing) {
+        Map<Integer, Double> distances = new HashMap<>();
+        distances.put(source, 0.0);
+        PriorityQueue<Visit> queue = new PriorityQueue<>(Comparator.comparingDouble((Visit visit) -> visit.distance));
+        queue.offer(new Visit(source, 0));
+        int settled = 0;
+        while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            Visit visit = queue.poll();
+            if (visit.distance > distances.get(visit.node)) {
+                continue;
+            }
+            if (visit.distance > limit) {
+                break;
+            }
+            settled++;
+            for (Map.Entry<Integer, Shortcut> entry : outgoing.get(visit.node).entrySet()) {
+                if (entry.getKey() == skipped) {
+                    continue;
+                }
+                double distance = visit.distance + entry.getValue().weight;
+                Double current = distances.get(entry.getKey());
+                if (current == null || distance < current) {
+                    distances.put(entry.getKey(), distance);
+                    queue.offer(new Visit(entry.getKey(), distance));
+                }
+            }
+        }
+        return distances;
+    }
+
+    private List<Integer> searchHierarchy(int source, int target) {
+        if (this.rank == null) {
+            this.contract();
+        }
+        Map<Integer, Double> forward = new HashMap<>();
+        Map<Integer, Double> backward = new HashMap<>();
+        Map<Integer, Integer> forwardParents = new HashMap<>();
+        Map<Integer, Integer> backwardParents = new HashMap<>();
+        PriorityQueue<Visit> forwardQueue = new PriorityQueue<>(Comparator.comparingDouble((Visit visit) -> visit.distance));
+        PriorityQueue<Visit> backwardQueue = new PriorityQueue<>(Comparator.comparingDouble((Visit visit) -> visit.distance));
+        forward.put(source, 0.0);
+        backward.put(target, 0.0);
+        forwardQueue.offer(new Visit(source, 0));
+        backwardQueue.offer(new Visit(target, 0));
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        while (!forwardQueue.isEmpty() || !backwardQueue.isEmpty()) {
+            double forwardMin = forwardQueue.isEmpty() ? Double.POSITIVE_INFINITY : forwardQueue.peek().distance;
+            double backwardMin = backwardQueue.isEmpty() ? Double.POSITIVE_INFINITY : backwardQueue.peek().distance;
+            if (Math.min(forwardMin, backwardMin) >= best) {
+                break;
+            }
+            boolean isForward = forwardMin <= backwardMin;
+            PriorityQueue<Visit> queue = isForward ? forwardQueue : backwardQueue;
+            Map<Integer, Double> distances = isForward ? forward : backward;
+            Map<Integer, Double> opposite = isForward ? backward : forward;
+            Map<Integer, Integer> parents = isForward ? forwardParents : backwardParents;
+            List<Map<Integer, Shortcut>> edges = isForward ? this.upward : this.downward;
+
+            Visit visit = queue.poll();
+            if (visit.distance > distances.get(visit.node)) {
+                continue;
+            }
+            Double other = opposite.get(visit.node);
+            if (other != null && visit.distance + other < best) {
+                best = visit.distance + other;
+                meeting = visit.node;
+            }
+            for (Map.Entry<Integer, Shortcut> entry : edges.get(visit.node).entrySet()) {
+                double distance = visit.distance + entry.getValue().weight;
+                Double current = distances.get(entry.getKey());
+                if (current == null || distance < current) {
+                    distances.put(entry.getKey(), distance);
+                    parents.put(entry.getKey(), visit.node);
+                    queue.offer(new Visit(entry.getKey(), distance));
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return null;
+        }
+        LinkedList<Integer> hubs = new LinkedList<>();
+        for (Integer node = meeting; node != null; node = forwardParents.get(node)) {
+            hubs.addFirst(node);
+        }
+        for (Integer node = backwardParents.get(meeting); node != null; node = backwardParents.get(node)) {
+            hubs.addLast(node);
+        }
+
+        List<Integer> path = new ArrayList<>();
+        path.add(hubs.getFirst());
+        Iterator<Integer> iterator = hubs.iterator();
+        int from = iterator.next();
+        while (iterator.hasNext()) {
+            int to = iterator.next();
+            this.unpack(from, to, path);
+            from = to;
+        }
+        return path;
+    }
+
+    private void unpack(int from, int to, List<Integer> path) {
+        Shortcut edge = this.rank[from] < this.rank[to]
+                ? this.upward.get(from).get(to)
+                : this.downward.get(to).get(from);
+        if (edge.middle == -1) {
+            path.add(to);
+        } else {
+            this.unpack(from, edge.middle, path);
+            this.unpack(edge.middle, to, path);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package core;
+
+import models.Message;
+
+class LoggedMessage extends Message {
+    private MessageLog log;
+
+    private MessageLog.Record record;
+
+    LoggedMessage(Message message, MessageLog log) {
+        super(message.getId(), null, message.getTimestamp(), message.getChannel());
+        this.log = log;
+        this.record = message.getContent() == null ? null : log.append(message.getContent());
+        this.setReactions(message.getReactions());
+    }
+
+    MessageLog getLog() {
+        return this.log;
+    }
+
+    void unlog() {
+        if (this.record != null) {
+            super.setContent(this.log.read(this.record));
+            this.log.delete(this.record);
+            this.record = null;
+        }
+        this.log = null;
+    }
+
+    @Override
+    public String getContent() {
+        return this.record == null ? super.getContent() : this.log.read(this.record);
+    }
+
+    @Override
+    public void setContent(String content) {
+        if (this.log == null) {
+            super.setContent(content);
+            return;
+        }
+        MessageLog.Record previous = this.record;
+        this.record = content == null ? null : this.log.append(content);
+        if (previous != null) {
+            this.log.delete(previous);
+        }
+    }
+
+    @Override
+    public int getContentLength() {
+        return this.record == null ? super.getContentLength() : this.record.getChars();
+    }
+}
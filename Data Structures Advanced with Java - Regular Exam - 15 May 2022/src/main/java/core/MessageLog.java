@@ -0,0 +1,219 @@
+package core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class MessageLog implements Closeable {
+
+    public static class Record {
+        private Segment segment;
+        private int offset;
+        private final int bytes;
+        private final int chars;
+
+        Record(Segment segment, int offset, int bytes, int chars) {
+            this.segment = segment;
+            this.offset = offset;
+            this.bytes = bytes;
+            this.chars = chars;
+        }
+
+        public int getChars() {
+            return this.chars;
+        }
+    }
+
+    static class Segment {
+        private final int id;
+        private final Path path;
+        private MappedByteBuffer buffer;
+        private final Set<Record> live;
+        private int position;
+        private int deadBytes;
+
+        Segment(int id, Path path, int size) throws IOException {
+            this.id = id;
+            this.path = path;
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+            this.live = Collections.newSetFromMap(new IdentityHashMap<>());
+        }
+
+        boolean fits(int bytes) {
+            return this.position + bytes <= this.buffer.capacity();
+        }
+    }
+
+    private static final int HEADER_BYTES = Integer.BYTES;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+    private final Map<Integer, Segment> segments;
+    private final List<Path> pendingDeletes;
+    private Segment active;
+    private int nextSegment;
+
+    public MessageLog(Path directory) {
+        this(directory, 64 * 1024 * 1024, 0.5);
+    }
+
+    public MessageLog(Path directory, int segmentSize, double compactionThreshold) {
+        if (segmentSize <= HEADER_BYTES || compactionThreshold <= 0 || compactionThreshold > 1) {
+            throw new IllegalArgumentException();
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        this.segments = new TreeMap<>();
+        this.pendingDeletes = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.roll();
+    }
+
+    private void roll() {
+        int id = this.nextSegment++;
+        try {
+            this.active = new Segment(id, this.directory.resolve(String.format("segment-%08d.log", id)), this.segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.segments.put(id, this.active);
+    }
+
+    public Record append(String content) {
+        byte[] encoded = content.getBytes(StandardCharsets.UTF_8);
+        Record record = this.write(encoded, content.length());
+        record.segment.live.add(record);
+        return record;
+    }
+
+    private Record write(byte[] encoded, int chars) {
+        int bytes = HEADER_BYTES + encoded.length;
+        if (bytes > this.segmentSize) {
+            throw new IllegalArgumentException();
+        }
+        if (this.active == null) {
+            throw new IllegalStateException();
+        }
+        if (!this.active.fits(bytes)) {
+            this.roll();
+        }
+        Segment segment = this.active;
+        int offset = segment.position;
+        ByteBuffer target = segment.buffer.duplicate();
+        target.position(offset);
+        target.putInt(encoded.length);
+        target.put(encoded);
+        segment.position += bytes;
+        return new Record(segment, offset, bytes, chars);
+    }
+
+    private byte[] bytesOf(Record record) {
+        if (record.segment.buffer == null) {
+            throw new IllegalStateException("message log is closed");
+        }
+        ByteBuffer source = record.segment.buffer.duplicate();
+        source.position(record.offset);
+        byte[] encoded = new byte[source.getInt()];
+        source.get(encoded);
+        return encoded;
+    }
+
+    public String read(Record record) {
+        return new String(this.bytesOf(record), StandardCharsets.UTF_8);
+    }
+
+    public void delete(Record record) {
+        Segment segment = record.segment;
+        if (!segment.live.remove(record)) {
+            return;
+        }
+        segment.deadBytes += record.bytes;
+        if (segment != this.active && segment.deadBytes >= segment.position * this.compactionThreshold) {
+            this.compact(segment);
+        }
+    }
+
+    private void compact(Segment segment) {
+        for (Record record : new ArrayList<>(segment.live)) {
+            Record moved = this.write(this.bytesOf(record), record.chars);
+            record.segment = moved.segment;
+            record.offset = moved.offset;
+            record.segment.live.add(record);
+        }
+        segment.live.clear();
+        this.segments.remove(segment.id);
+        this.release(segment);
+    }
+
+    // The JDK has no explicit unmap: a mapping is released only once its buffer is
+    // garbage collected. On Windows a file cannot be deleted while it is mapped, so
+    // deletes that fail are kept and retried on later compactions and on close.
+    private void release(Segment segment) {
+        segment.buffer = null;
+        this.pendingDeletes.add(segment.path);
+        this.pendingDeletes.removeIf(MessageLog::tryDelete);
+    }
+
+    private static boolean tryDelete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    int getPendingDeleteCount() {
+        return this.pendingDeletes.size();
+    }
+
+    public int getSegmentCount() {
+        return this.segments.size();
+    }
+
+    public long getLiveBytes() {
+        long bytes = 0;
+        for (Segment segment : this.segments.values()) {
+            bytes += segment.position - segment.deadBytes;
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        List<Segment> closed = new ArrayList<>(this.segments.values());
+        this.segments.clear();
+        this.active = null;
+        for (Segment segment : closed) {
+            segment.live.clear();
+            this.release(segment);
+        }
+        for (Path path : this.pendingDeletes) {
+            path.toFile().deleteOnExit();
+        }
+        this.pendingDeletes.clear();
+    }
+}
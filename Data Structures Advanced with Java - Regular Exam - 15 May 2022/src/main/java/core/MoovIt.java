@@ -1,10 +1,15 @@
 package core;
 
+import models.Journey;
 import models.Route;
 
+import java.util.List;
+
 public interface MoovIt {
     void addRoute(Route route);
 
+    void addRoutes(List<Route> routes);
+
     void removeRoute(String routeId);
 
     boolean contains(Route route);
@@ -20,4 +25,6 @@ public interface MoovIt {
     Iterable<Route> getFavoriteRoutes(String destinationPoint);
 
     Iterable<Route> getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints();
+
+    Journey planJourney(String startPoint, String endPoint);
 }
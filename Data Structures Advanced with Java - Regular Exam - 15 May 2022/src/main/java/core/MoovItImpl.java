@@ -1,5 +1,7 @@
 package core;
 
+import models.Journey;
+import models.NameDictionary;
 import models.Route;
 
 import java.util.*;
@@ -7,21 +9,225 @@ import java.util.stream.Collectors;
 
 public class MoovItImpl implements MoovIt {
 
-    private final Map<String, Route> routes;
-    private final Set<Route> uniqueRoutes;
+    static class RouteNode {
+        private final Route route;
+        private final RouteKey key;
+        private final long sequence;
+        private final int locationCount;
+        private int[] locationIds;
+
+        RouteNode(Route route, RouteKey key, long sequence) {
+            this.route = route;
+            this.key = key;
+            this.sequence = sequence;
+            this.locationCount = route.getLocationPoints() == null ? 0 : route.getLocationPoints().size();
+        }
+
+        Route getRoute() {
+            return this.route;
+        }
+
+        double getDistance() {
+            return this.key.getDistance();
+        }
+
+        long getSequence() {
+            return this.sequence;
+        }
+
+        int[] getLocationIds(NameDictionary dictionary) {
+            if (this.locationIds == null) {
+                this.locationIds = new int[this.locationCount];
+                for (int i = 0; i < this.locationCount; i++) {
+                    this.locationIds[i] = dictionary.encode(this.route.getLocationPoints().get(i));
+                }
+            }
+            return this.locationIds;
+        }
+    }
+
+    static class SearchHit {
+        private final RouteNode node;
+        private final boolean favorite;
+        private final int gap;
+        private final int popularity;
+
+        SearchHit(RouteNode node, int gap) {
+            this.node = node;
+            this.favorite = node.getRoute().getIsFavorite();
+            this.gap = gap;
+            this.popularity = node.getRoute().getPopularity();
+        }
+    }
+
+    private final Map<String, RouteNode> routes;
+    private final Set<RouteKey> uniqueRoutes;
+    private final NameDictionary locationNames;
+    private Map<Integer, Map<RouteNode, Integer>> locations;
+    private Map<Integer, TreeSet<RouteNode>> favorites;
+    private TreeMap<Integer, TreeSet<RouteNode>> popularity;
+    private JourneyPlanner planner;
+    private long nextSequence;
 
     public MoovItImpl() {
         this.routes = new LinkedHashMap<>();
-        this.uniqueRoutes = new LinkedHashSet<>();
+        this.uniqueRoutes = new HashSet<>();
+        this.locationNames = new NameDictionary();
+    }
+
+    private Map<Integer, Map<RouteNode, Integer>> getLocations() {
+        if (this.locations == null) {
+            this.locations = new HashMap<>();
+            this.routes.values().forEach(this::indexLocations);
+        }
+        return this.locations;
+    }
+
+    private Map<Integer, TreeSet<RouteNode>> getFavorites() {
+        if (this.favorites == null) {
+            this.favorites = new HashMap<>();
+            this.routes.values().forEach(this::indexFavorite);
+        }
+        return this.favorites;
+    }
+
+    private JourneyPlanner getPlanner() {
+        if (this.planner == null) {
+            this.planner = new JourneyPlanner();
+            this.routes.values().forEach(node -> this.planner.addRoute(node.getRoute()));
+        }
+        return this.planner;
+    }
+
+    private TreeMap<Integer, TreeSet<RouteNode>> getPopularity() {
+        if (this.popularity == null) {
+            this.popularity = new TreeMap<>(Comparator.reverseOrder());
+            this.routes.values().forEach(this::indexPopularity);
+        }
+        return this.popularity;
+    }
+
+    private void indexPopularity(RouteNode node) {
+        this.popularity.computeIfAbsent(node.getRoute().getPopularity(), s -> new TreeSet<>(Comparator
+                .comparingDouble(RouteNode::getDistance)
+                .thenComparingInt(routeNode -> routeNode.locationCount)
+                .thenComparingLong(RouteNode::getSequence))).add(node);
+    }
+
+    private void unindexPopularity(RouteNode node) {
+        TreeSet<RouteNode> samePopularity = this.popularity.get(node.getRoute().getPopularity());
+        if (samePopularity != null) {
+            samePopularity.remove(node);
+            if (samePopularity.isEmpty()) {
+                this.popularity.remove(node.getRoute().getPopularity());
+            }
+        }
+    }
+
+    private Set<Integer> getDestinations(RouteNode node) {
+        if (!node.getRoute().getIsFavorite() || node.locationCount == 0) {
+            return Collections.emptySet();
+        }
+        int[] locationIds = node.getLocationIds(this.locationNames);
+        Set<Integer> destinations = new HashSet<>();
+        for (int locationId : locationIds) {
+            if (locationId != locationIds[0]) {
+                destinations.add(locationId);
+            }
+        }
+        return destinations;
+    }
+
+    private void indexFavorite(RouteNode node) {
+        for (int destination : this.getDestinations(node)) {
+            this.favorites.computeIfAbsent(destination, s -> new TreeSet<>(Comparator
+                    .comparingDouble(RouteNode::getDistance)
+                    .thenComparing(routeNode -> routeNode.getRoute().getPopularity(), Comparator.reverseOrder())
+                    .thenComparingLong(RouteNode::getSequence))).add(node);
+        }
+    }
+
+    private void unindexFavorite(RouteNode node) {
+        for (int destination : this.getDestinations(node)) {
+            TreeSet<RouteNode> destinationFavorites = this.favorites.get(destination);
+            if (destinationFavorites != null) {
+                destinationFavorites.remove(node);
+                if (destinationFavorites.isEmpty()) {
+                    this.favorites.remove(destination);
+                }
+            }
+        }
+    }
+
+    private void indexLocations(RouteNode node) {
+        int[] locationIds = node.getLocationIds(this.locationNames);
+        for (int i = 0; i < locationIds.length; i++) {
+            this.locations.computeIfAbsent(locationIds[i], s -> new HashMap<>()).putIfAbsent(node, i);
+        }
+    }
+
+    private void unindexLocations(RouteNode node) {
+        for (int locationPoint : node.getLocationIds(this.locationNames)) {
+            Map<RouteNode, Integer> postings = this.locations.get(locationPoint);
+            if (postings != null) {
+                postings.remove(node);
+                if (postings.isEmpty()) {
+                    this.locations.remove(locationPoint);
+                }
+            }
+        }
+    }
+
+    private void index(RouteNode node) {
+        if (this.locations != null) {
+            this.indexLocations(node);
+        }
+        if (this.favorites != null) {
+            this.indexFavorite(node);
+        }
+        if (this.popularity != null) {
+            this.indexPopularity(node);
+        }
+        if (this.planner != null) {
+            this.planner.addRoute(node.getRoute());
+        }
     }
 
     @Override
     public void addRoute(Route route) {
-        if (this.contains(route)) {
+        RouteKey key = RouteKey.of(route);
+        if (this.routes.containsKey(route.getId()) || this.uniqueRoutes.contains(key)) {
             throw new IllegalArgumentException();
         }
-        this.routes.put(route.getId(), route);
-        this.uniqueRoutes.add(route);
+        RouteNode node = new RouteNode(route, key, this.nextSequence++);
+        this.routes.put(route.getId(), node);
+        this.uniqueRoutes.add(key);
+        this.index(node);
+    }
+
+    @Override
+    public void addRoutes(List<Route> routes) {
+        List<RouteKey> keys = new ArrayList<>(routes.size());
+        Set<String> batchIds = new HashSet<>();
+        Set<RouteKey> batchKeys = new HashSet<>();
+        for (Route route : routes) {
+            RouteKey key = RouteKey.of(route);
+            if (this.routes.containsKey(route.getId()) || this.uniqueRoutes.contains(key)
+                    || !batchIds.add(route.getId()) || !batchKeys.add(key)) {
+                throw new IllegalArgumentException();
+            }
+            keys.add(key);
+        }
+        if (routes.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            RouteNode node = new RouteNode(route, keys.get(i), this.nextSequence++);
+            this.routes.put(route.getId(), node);
+            this.index(node);
+        }
+        this.uniqueRoutes.addAll(keys);
     }
 
     @Override
@@ -29,13 +235,26 @@ public class MoovItImpl implements MoovIt {
         if (!this.routes.containsKey(routeId)) {
             throw new IllegalArgumentException();
         }
-        Route route = this.routes.remove(routeId);
-        this.uniqueRoutes.remove(route);
+        RouteNode node = this.routes.remove(routeId);
+        this.uniqueRoutes.remove(node.key);
+        if (this.locations != null) {
+            this.unindexLocations(node);
+        }
+        if (this.favorites != null) {
+            this.unindexFavorite(node);
+        }
+        if (this.popularity != null) {
+            this.unindexPopularity(node);
+        }
+        if (this.planner != null) {
+            this.planner.removeRoute(node.getRoute());
+        }
     }
 
     @Override
     public boolean contains(Route route) {
-        return this.routes.containsKey(route.getId()) || this.uniqueRoutes.contains(route);
+        return this.routes.containsKey(route.getId())
+                || route.getDistance() != null && this.uniqueRoutes.contains(RouteKey.of(route));
     }
 
     @Override
@@ -48,79 +267,103 @@ public class MoovItImpl implements MoovIt {
         if (!this.routes.containsKey(routeId)) {
             throw new IllegalArgumentException();
         }
-        return this.routes.get(routeId);
+        return this.routes.get(routeId).getRoute();
     }
 
     @Override
     public void chooseRoute(String routeId) {
-        Route route = this.getRoute(routeId);
-        route.setPopularity(route.getPopularity() + 1);
+        this.addPopularity(routeId, 1);
+    }
+
+    void addPopularity(String routeId, int delta) {
+        if (!this.routes.containsKey(routeId)) {
+            throw new IllegalArgumentException();
+        }
+        RouteNode node = this.routes.get(routeId);
+        if (this.favorites != null) {
+            this.unindexFavorite(node);
+        }
+        if (this.popularity != null) {
+            this.unindexPopularity(node);
+        }
+        node.getRoute().setPopularity(node.getRoute().getPopularity() + delta);
+        if (this.favorites != null) {
+            this.indexFavorite(node);
+        }
+        if (this.popularity != null) {
+            this.indexPopularity(node);
+        }
     }
 
     @Override
     public Iterable<Route> searchRoutes(String startPoint, String endPoint) {
-        return this.routes.values()
-                .stream()
-                .filter(route -> {
-                    List<String> locationPoints = route.getLocationPoints();
-                    int startPointIndex = locationPoints.indexOf(startPoint);
-                    int endPointIndex = locationPoints.indexOf(endPoint);
-                    return startPointIndex != -1 && endPointIndex != -1 && startPointIndex < endPointIndex;
-                })
-                .sorted((o1, o2) -> {
-                    if (Boolean.compare(o2.getIsFavorite(), o1.getIsFavorite()) == 0) {
-                        int o1Distance = getDistance(o1.getLocationPoints(), startPoint, endPoint);
-                        int o2Distance = getDistance(o2.getLocationPoints(), startPoint, endPoint);
-                        if (o1Distance == o2Distance) {
-                            return Integer.compare(o2.getPopularity(), o1.getPopularity());
-                        }
-                        return Integer.compare(o2Distance, o1Distance);
+        Map<RouteNode, Integer> starts = this.getLocations().get(this.locationNames.find(startPoint));
+        Map<RouteNode, Integer> ends = this.getLocations().get(this.locationNames.find(endPoint));
+        if (starts == null || ends == null) {
+            return new ArrayList<>();
+        }
+
+        boolean fromStarts = starts.size() <= ends.size();
+        List<SearchHit> hits = new ArrayList<>();
+        for (Map.Entry<RouteNode, Integer> entry : (fromStarts ? starts : ends).entrySet()) {
+            Integer other = (fromStarts ? ends : starts).get(entry.getKey());
+            if (other == null) {
+                continue;
+            }
+            int gap = fromStarts ? other - entry.getValue() : entry.getValue() - other;
+            if (gap > 0) {
+                hits.add(new SearchHit(entry.getKey(), gap));
+            }
+        }
+
+        hits.sort((o1, o2) -> {
+            if (o1.favorite == o2.favorite) {
+                if (o1.gap == o2.gap) {
+                    if (o1.popularity == o2.popularity) {
+                        return Long.compare(o1.node.getSequence(), o2.node.getSequence());
                     }
-                    return Boolean.compare(o2.getIsFavorite(), o1.getIsFavorite());
-                })
+                    return Integer.compare(o2.popularity, o1.popularity);
+                }
+                return Integer.compare(o1.gap, o2.gap);
+            }
+            return Boolean.compare(o2.favorite, o1.favorite);
+        });
+        return hits.stream()
+                .map(hit -> hit.node.getRoute())
                 .collect(Collectors.toList());
     }
 
-    private int getDistance(List<String> locations, String startPoint, String endPoint) {
-        int startPointIndex = locations.indexOf(startPoint);
-        int endPointIndex = locations.indexOf(endPoint);
-        return startPointIndex - endPointIndex;
-    }
-
     @Override
     public Iterable<Route> getFavoriteRoutes(String destinationPoint) {
-        return this.routes.values()
-                .stream()
-                .filter(route ->
-                        route.getIsFavorite()
-                                && route.getLocationPoints() != null
-                                && !route.getLocationPoints().isEmpty()
-                                && !route.getLocationPoints().get(0).equals(destinationPoint)
-                                && route.getLocationPoints().contains(destinationPoint)
-                )
-                .sorted((o1, o2) -> {
-                    if (Double.compare(o1.getDistance(), o2.getDistance()) == 0) {
-                        return Integer.compare(o2.getPopularity(), o1.getPopularity());
-                    }
-                    return Double.compare(o1.getDistance(), o2.getDistance());
-                })
+        TreeSet<RouteNode> destinationFavorites = this.getFavorites().get(this.locationNames.find(destinationPoint));
+        if (destinationFavorites == null) {
+            return new ArrayList<>();
+        }
+        return destinationFavorites.stream()
+                .map(RouteNode::getRoute)
                 .collect(Collectors.toList());
     }
 
     @Override
     public Iterable<Route> getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints() {
-        return this.routes.values()
-                .stream()
-                .sorted((o1, o2) -> {
-                    if ((int) o2.getPopularity() == o1.getPopularity()) {
-                        if (Double.compare(o1.getDistance(), o2.getDistance()) == 0) {
-                            return Integer.compare(o1.getLocationPoints().size(), o2.getLocationPoints().size());
-                        }
-                        return Double.compare(o1.getDistance(), o2.getDistance());
-                    }
-                    return Integer.compare(o2.getPopularity(), o1.getPopularity());
-                })
-                .limit(5)
-                .collect(Collectors.toList());
+        List<Route> top = new ArrayList<>(5);
+        for (TreeSet<RouteNode> samePopularity : this.getPopularity().values()) {
+            for (RouteNode node : samePopularity) {
+                if (top.size() == 5) {
+                    return top;
+                }
+                top.add(node.getRoute());
+            }
+        }
+        return top;
+    }
+
+    @Override
+    public Journey planJourney(String startPoint, String endPoint) {
+        return this.planJourney(startPoint, endPoint, JourneyPlanner.Mode.DIJKSTRA);
+    }
+
+    public Journey planJourney(String startPoint, String endPoint, JourneyPlanner.Mode mode) {
+        return this.getPlanner().plan(startPoint, endPoint, mode);
     }
 }
@@ -0,0 +1,37 @@
+package core;
+
+public class RetentionPolicy {
+    private final int maxAge;
+
+    private final int maxMessagesPerChannel;
+
+    private final long maxMemoryBytes;
+
+    private final int batchSize;
+
+    public RetentionPolicy(int maxAge, int maxMessagesPerChannel, long maxMemoryBytes, int batchSize) {
+        if (maxAge < 0 || maxMessagesPerChannel < 0 || maxMemoryBytes < 0 || batchSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxAge = maxAge;
+        this.maxMessagesPerChannel = maxMessagesPerChannel;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxAge() {
+        return this.maxAge;
+    }
+
+    public int getMaxMessagesPerChannel() {
+        return this.maxMessagesPerChannel;
+    }
+
+    public long getMaxMemoryBytes() {
+        return this.maxMemoryBytes;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+}
@@ -0,0 +1,54 @@
+package core;
+
+import models.Route;
+
+import java.util.List;
+import java.util.Objects;
+
+final class RouteKey {
+
+    private final double distance;
+    private final String firstLocation;
+    private final String lastLocation;
+    private final int hash;
+
+    private RouteKey(double distance, String firstLocation, String lastLocation) {
+        this.distance = distance;
+        this.firstLocation = firstLocation;
+        this.lastLocation = lastLocation;
+        int hash = Double.hashCode(distance);
+        hash = 31 * hash + Objects.hashCode(firstLocation);
+        this.hash = 31 * hash + Objects.hashCode(lastLocation);
+    }
+
+    static RouteKey of(Route route) {
+        if (route.getDistance() == null) {
+            throw new IllegalArgumentException();
+        }
+        List<String> locationPoints = route.getLocationPoints();
+        boolean empty = locationPoints == null || locationPoints.isEmpty();
+        return new RouteKey(route.getDistance(),
+                empty ? null : locationPoints.get(0),
+                empty ? null : locationPoints.get(locationPoints.size() - 1));
+    }
+
+    double getDistance() {
+        return this.distance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RouteKey)) return false;
+        RouteKey key = (RouteKey) o;
+        return this.hash == key.hash
+                && Double.doubleToLongBits(this.distance) == Double.doubleToLongBits(key.distance)
+                && Objects.equals(this.firstLocation, key.firstLocation)
+                && Objects.equals(this.lastLocation, key.lastLocation);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+}
@@ -0,0 +1,156 @@
+package core;
+
+import models.Route;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class RouteLoader {
+
+    public static final char FIELD_SEPARATOR = '\t';
+    public static final char LOCATION_SEPARATOR = '|';
+
+    private static final int MIN_CHUNK_BYTES = 1 << 20;
+    private static final int MAX_CHUNK_BYTES = Integer.MAX_VALUE - 1024;
+    private static final int SCAN_BYTES = 4096;
+
+    private final Map<String, String> locations;
+
+    public RouteLoader() {
+        this.locations = new ConcurrentHashMap<>();
+    }
+
+    public List<Route> load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parallelism = Runtime.getRuntime().availableProcessors();
+            long chunks = Math.max(Math.min(parallelism * 4L, size / MIN_CHUNK_BYTES), size / MAX_CHUNK_BYTES + 1);
+            return this.load(file, (int) Math.max(1, chunks));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Route> load(Path file, int chunks) {
+        if (chunks <= 0) {
+            throw new IllegalArgumentException();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] starts = new long[chunks + 1];
+            starts[chunks] = size;
+            for (int i = 1; i < chunks; i++) {
+                starts[i] = Math.max(starts[i - 1], nextLineStart(channel, size * i / chunks, size));
+            }
+            for (int i = 0; i < chunks; i++) {
+                if (starts[i + 1] - starts[i] > MAX_CHUNK_BYTES) {
+                    throw new IllegalArgumentException();
+                }
+            }
+
+            List<List<Route>> parsed = IntStream.range(0, chunks)
+                    .parallel()
+                    .mapToObj(i -> this.parseChunk(channel, starts[i], starts[i + 1]))
+                    .collect(Collectors.toList());
+
+            List<Route> routes = new ArrayList<>();
+            parsed.forEach(routes::addAll);
+            return routes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BYTES);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private List<Route> parseChunk(FileChannel channel, long start, long end) {
+        List<Route> routes = new ArrayList<>();
+        if (start >= end) {
+            return routes;
+        }
+        CharBuffer text;
+        try {
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            text = StandardCharsets.UTF_8.decode(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int lineStart = 0;
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || text.charAt(i) == '\n') {
+                int lineEnd = i > lineStart && text.charAt(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart) {
+                    routes.add(this.parseLine(text.subSequence(lineStart, lineEnd).toString()));
+                }
+                lineStart = i + 1;
+            }
+        }
+        return routes;
+    }
+
+    private Route parseLine(String line) {
+        String[] fields = new String[5];
+        int fieldStart = 0;
+        for (int field = 0; field < 4; field++) {
+            int separator = line.indexOf(FIELD_SEPARATOR, fieldStart);
+            if (separator == -1) {
+                throw new IllegalArgumentException(line);
+            }
+            fields[field] = line.substring(fieldStart, separator);
+            fieldStart = separator + 1;
+        }
+        fields[4] = line.substring(fieldStart);
+
+        List<String> locationPoints = new ArrayList<>();
+        int locationStart = 0;
+        while (locationStart <= fields[4].length()) {
+            int separator = fields[4].indexOf(LOCATION_SEPARATOR, locationStart);
+            int locationEnd = separator == -1 ? fields[4].length() : separator;
+            String location = fields[4].substring(locationStart, locationEnd);
+            locationPoints.add(this.locations.computeIfAbsent(location, s -> s));
+            locationStart = locationEnd + 1;
+        }
+
+        try {
+            return new Route(fields[0], Double.parseDouble(fields[1]), Integer.parseInt(fields[2]),
+                    Boolean.parseBoolean(fields[3]), locationPoints);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(line, e);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package core;
+
+import models.Message;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ShardedDiscordImpl implements Discord {
+
+    static class Ranked {
+        private final Message message;
+        private final String channel;
+        private final long sequence;
+        private final int reactionCount;
+        private final int timestamp;
+        private final int contentLength;
+
+        Ranked(Message message, long sequence) {
+            this.message = message;
+            this.channel = message.getChannel();
+            this.sequence = sequence;
+            this.reactionCount = message.getReactions().size();
+            this.timestamp = message.getTimestamp();
+            this.contentLength = message.getContentLength();
+        }
+
+        Message getMessage() {
+            return this.message;
+        }
+    }
+
+    static class Cursor<T> {
+        private final List<T> run;
+        private int position;
+
+        Cursor(List<T> run) {
+            this.run = run;
+        }
+
+        T peek() {
+            return this.run.get(this.position);
+        }
+    }
+
+    private static final int OUTBOX_CAPACITY = 1024;
+
+    private static final Comparator<Ranked> BY_REACTIONS = Comparator
+            .comparingInt((Ranked ranked) -> ranked.reactionCount).reversed()
+            .thenComparingLong(ranked -> ranked.sequence);
+
+    private static final Comparator<Ranked> BY_REACTIONS_THEN_TIMESTAMP = Comparator
+            .comparingInt((Ranked ranked) -> ranked.reactionCount).reversed()
+            .thenComparingInt(ranked -> ranked.timestamp)
+            .thenComparingLong(ranked -> ranked.sequence);
+
+    private static final Comparator<Ranked> BY_REACTIONS_THEN_TIMESTAMP_THEN_LENGTH = Comparator
+            .comparingInt((Ranked ranked) -> ranked.reactionCount).reversed()
+            .thenComparingInt(ranked -> ranked.timestamp)
+            .thenComparingInt(ranked -> ranked.contentLength)
+            .thenComparingLong(ranked -> ranked.sequence);
+
+    private static final Comparator<List<Ranked>> BY_GROUP_SIZE = Comparator
+            .comparingInt((List<Ranked> group) -> group.size()).reversed()
+            .thenComparingLong(group -> group.get(0).sequence);
+
+    private final DiscordImpl[] shards;
+    private final ReentrantLock[] locks;
+    private final ReentrantLock[] deliveryLocks;
+    private final List<BlockingQueue<Runnable>> outboxes;
+    private final Map<String, Integer> messageShards;
+    private final AtomicLong nextSequence;
+
+    public ShardedDiscordImpl() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public ShardedDiscordImpl(int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.shards = new DiscordImpl[shardCount];
+        this.locks = new ReentrantLock[shardCount];
+        this.deliveryLocks = new ReentrantLock[shardCount];
+        this.outboxes = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            this.shards[i] = new DiscordImpl();
+            this.locks[i] = new ReentrantLock();
+            this.deliveryLocks[i] = new ReentrantLock();
+            this.outboxes.add(new LinkedBlockingQueue<>());
+            this.shards[i].guardWith(this.locks[i], this.outboxes.get(i));
+        }
+        this.messageShards = new ConcurrentHashMap<>();
+        this.nextSequence = new AtomicLong();
+    }
+
+    private int shardOf(String channel) {
+        return Math.floorMod(Objects.hashCode(channel), this.shards.length);
+    }
+
+    private <T> T withShard(int shard, Function<DiscordImpl, T> action) {
+        this.locks[shard].lock();
+        try {
+            return action.apply(this.shards[shard]);
+        } finally {
+            this.locks[shard].unlock();
+        }
+    }
+
+    private void deliver(int shard) {
+        BlockingQueue<Runnable> outbox = this.outboxes.get(shard);
+        while (!outbox.isEmpty()) {
+            if (!this.deliveryLocks[shard].tryLock()) {
+                if (outbox.size() <= OUTBOX_CAPACITY) {
+                    return;
+                }
+                try {
+                    this.deliveryLocks[shard].lockInterruptibly();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            try {
+                for (Runnable delivery = outbox.poll(); delivery != null; delivery = outbox.poll()) {
+                    delivery.run();
+                }
+            } finally {
+                this.deliveryLocks[shard].unlock();
+            }
+        }
+    }
+
+    private <T> T withMessage(String messageId, Function<DiscordImpl, T> action) {
+        AtomicReference<T> result = new AtomicReference<>();
+        Integer shard = this.messageShards.computeIfPresent(messageId, (id, owner) -> {
+            result.set(this.withShard(owner, action));
+            return owner;
+        });
+        if (shard == null) {
+            throw new IllegalArgumentException();
+        }
+        return result.get();
+    }
+
+    private void updateMessage(String messageId, Consumer<DiscordImpl> action) {
+        Integer shard = this.messageShards.computeIfPresent(messageId, (id, owner) -> {
+            this.withShard(owner, discord -> {
+                action.accept(discord);
+                return null;
+            });
+            return owner;
+        });
+        if (shard == null) {
+            throw new IllegalArgumentException();
+        }
+        this.deliver(shard);
+    }
+
+    private int place(Message message, long sequence) {
+        int shard = this.shardOf(message.getChannel());
+        this.messageShards.compute(message.getId(), (id, previous) -> {
+            if (previous != null && previous != shard) {
+                this.withShard(previous, discord -> {
+                    if (discord.hasMessage(id)) {
+                        discord.deleteMessage(id);
+                    }
+                    return null;
+                });
+            }
+            this.withShard(shard, discord -> {
+                discord.sendMessage(message, sequence);
+                return null;
+            });
+            return shard;
+        });
+        return shard;
+    }
+
+    @Override
+    public void sendMessage(Message message) {
+        this.deliver(this.place(message, this.nextSequence.getAndIncrement()));
+    }
+
+    @Override
+    public void sendMessages(List<Message> messages) {
+        long firstSequence = this.nextSequence.getAndAdd(messages.size());
+        Map<String, Integer> latest = new HashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            latest.put(messages.get(i).getId(), i);
+        }
+        List<List<Integer>> batches = new ArrayList<>(this.shards.length);
+        for (int i = 0; i < this.shards.length; i++) {
+            batches.add(new ArrayList<>());
+        }
+        for (int i = 0; i < messages.size(); i++) {
+            if (latest.get(messages.get(i).getId()) == i) {
+                batches.get(this.shardOf(messages.get(i).getChannel())).add(i);
+            }
+        }
+        IntStream.range(0, this.shards.length)
+                .parallel()
+                .filter(shard -> !batches.get(shard).isEmpty())
+                .forEach(shard -> {
+                    for (int index : batches.get(shard)) {
+                        this.place(messages.get(index), firstSequence + index);
+                    }
+                    this.deliver(shard);
+                });
+    }
+
+    @Override
+    public boolean contains(Message message) {
+        AtomicBoolean found = new AtomicBoolean();
+        this.messageShards.computeIfPresent(message.getId(), (id, shard) -> {
+            found.set(this.withShard(shard, discord -> discord.contains(message)));
+            return shard;
+        });
+        return found.get();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int shard = 0; shard < this.shards.length; shard++) {
+            size += this.withShard(shard, DiscordImpl::size);
+        }
+        return size;
+    }
+
+    @Override
+    public Message getMessage(String messageId) {
+        return this.withMessage(messageId, discord -> discord.getMessage(messageId));
+    }
+
+    @Override
+    public void deleteMessage(String messageId) {
+        AtomicBoolean deleted = new AtomicBoolean();
+        this.messageShards.computeIfPresent(messageId, (id, shard) -> {
+            deleted.set(this.withShard(shard, discord -> {
+                if (!discord.hasMessage(id)) {
+                    return false;
+                }
+                discord.deleteMessage(id);
+                return true;
+            }));
+            return null;
+        });
+        if (!deleted.get()) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    @Override
+    public void reactToMessage(String messageId, String reaction) {
+        this.updateMessage(messageId, discord -> discord.reactToMessage(messageId, reaction));
+    }
+
+    @Override
+    public void removeReaction(String messageId, String reaction) {
+        this.updateMessage(messageId, discord -> discord.removeReaction(messageId, reaction));
+    }
+
+    @Override
+    public Iterable<Message> getChannelMessages(String channel) {
+        return this.withShard(this.shardOf(channel), discord -> discord.getChannelMessages(channel));
+    }
+
+    private List<List<Ranked>> collect(Function<DiscordImpl, Iterable<Message>> query) {
+        List<List<Ranked>> runs = new ArrayList<>(this.shards.length);
+        for (int shard = 0; shard < this.shards.length; shard++) {
+            runs.add(this.withShard(shard, discord -> {
+                List<Ranked> run = new ArrayList<>();
+                for (Message message : query.apply(discord)) {
+                    run.add(new Ranked(message, discord.getSequence(message.getId())));
+                }
+                return run;
+            }));
+        }
+        return runs;
+    }
+
+    private static <T> List<T> merge(List<List<T>> runs, Comparator<T> comparator, int limit) {
+        PriorityQueue<Cursor<T>> queue = new PriorityQueue<>((o1, o2) -> comparator.compare(o1.peek(), o2.peek()));
+        for (List<T> run : runs) {
+            if (!run.isEmpty()) {
+                queue.offer(new Cursor<>(run));
+            }
+        }
+        List<T> result = new ArrayList<>();
+        while (!queue.isEmpty() && result.size() < limit) {
+            Cursor<T> cursor = queue.poll();
+            result.add(cursor.peek());
+            if (++cursor.position < cursor.run.size()) {
+                queue.offer(cursor);
+            }
+        }
+        return result;
+    }
+
+    private static List<Message> toMessages(List<Ranked> ranked) {
+        return ranked.stream()
+                .map(Ranked::getMessage)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Iterable<Message> getMessagesByReactions(List<String> reactions) {
+        return toMessages(merge(this.collect(discord -> discord.getMessagesByReactions(reactions)),
+                BY_REACTIONS_THEN_TIMESTAMP, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public Iterable<Message> getMessageInTimeRange(Integer lowerBound, Integer upperBound) {
+        List<List<List<Ranked>>> runs = new ArrayList<>();
+        for (List<Ranked> run : this.collect(discord -> discord.getMessageInTimeRange(lowerBound, upperBound))) {
+            List<List<Ranked>> groups = new ArrayList<>();
+            for (Ranked ranked : run) {
+                if (groups.isEmpty() || !Objects.equals(groups.get(groups.size() - 1).get(0).channel, ranked.channel)) {
+                    groups.add(new ArrayList<>());
+                }
+                groups.get(groups.size() - 1).add(ranked);
+            }
+            runs.add(groups);
+        }
+        return merge(runs, BY_GROUP_SIZE, Integer.MAX_VALUE)
+                .stream()
+                .flatMap(Collection::stream)
+                .map(Ranked::getMessage)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Iterable<Message> getTop3MostReactedMessages() {
+        return toMessages(merge(this.collect(DiscordImpl::getTop3MostReactedMessages), BY_REACTIONS, 3));
+    }
+
+    @Override
+    public Iterable<Message> getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent() {
+        return toMessages(merge(this.collect(DiscordImpl::getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent),
+                BY_REACTIONS_THEN_TIMESTAMP_THEN_LENGTH, Integer.MAX_VALUE));
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Integer fromTimestamp) {
+        return this.withShard(this.shardOf(channel), discord -> discord.subscribe(channel, fromTimestamp));
+    }
+
+    @Override
+    public Subscription subscribe(String channel, Integer fromTimestamp, int capacity, Subscription.Backpressure backpressure) {
+        return this.withShard(this.shardOf(channel),
+                discord -> discord.subscribe(channel, fromTimestamp, capacity, backpressure));
+    }
+}
@@ -0,0 +1,176 @@
+package core;
+
+import models.ChannelEvent;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class Subscription implements Closeable {
+
+    public enum Backpressure {
+        DROP_OLDEST,
+        BLOCK
+    }
+
+    private final String channel;
+    private final Integer fromTimestamp;
+    private final int capacity;
+    private final Backpressure backpressure;
+    private Supplier<ChannelEvent> replay;
+    private final ArrayDeque<ChannelEvent> buffer;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private long dropped;
+    private volatile boolean closed;
+    private Runnable onClose;
+
+    Subscription(String channel, Integer fromTimestamp, int capacity, Backpressure backpressure, Supplier<ChannelEvent> replay) {
+        if (capacity <= 0 || backpressure == null) {
+            throw new IllegalArgumentException();
+        }
+        this.channel = channel;
+        this.fromTimestamp = fromTimestamp;
+        this.capacity = capacity;
+        this.backpressure = backpressure;
+        this.replay = replay;
+        this.buffer = new ArrayDeque<>();
+        this.lock = new ReentrantLock();
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
+    }
+
+    public String getChannel() {
+        return this.channel;
+    }
+
+    public Integer getFromTimestamp() {
+        return this.fromTimestamp;
+    }
+
+    boolean accepts(int timestamp) {
+        return this.fromTimestamp == null || timestamp >= this.fromTimestamp;
+    }
+
+    void onClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    void publish(ChannelEvent event) {
+        this.lock.lock();
+        try {
+            while (!this.closed && this.buffer.size() == this.capacity) {
+                if (this.backpressure == Backpressure.DROP_OLDEST) {
+                    this.buffer.pollFirst();
+                    this.dropped++;
+                } else {
+                    try {
+                        this.notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        this.buffer.pollFirst();
+                        this.dropped++;
+                    }
+                }
+            }
+            if (this.closed) {
+                return;
+            }
+            this.buffer.addLast(event);
+            this.notEmpty.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private ChannelEvent next() {
+        if (this.replay != null) {
+            ChannelEvent replayed = this.replay.get();
+            if (replayed != null) {
+                return replayed;
+            }
+            this.replay = null;
+        }
+        ChannelEvent event = this.buffer.pollFirst();
+        if (event != null) {
+            this.notFull.signal();
+        }
+        return event;
+    }
+
+    public ChannelEvent poll() {
+        this.lock.lock();
+        try {
+            return this.next();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public ChannelEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        this.lock.lock();
+        try {
+            ChannelEvent event = this.next();
+            while (event == null && !this.closed && nanos > 0) {
+                nanos = this.notEmpty.awaitNanos(nanos);
+                event = this.next();
+            }
+            return event;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public ChannelEvent take() throws InterruptedException {
+        this.lock.lock();
+        try {
+            ChannelEvent event = this.next();
+            while (event == null) {
+                if (this.closed) {
+                    throw new IllegalStateException();
+                }
+                this.notEmpty.await();
+                event = this.next();
+            }
+            return event;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getDropped() {
+        this.lock.lock();
+        try {
+            return this.dropped;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() {
+        this.lock.lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            this.notEmpty.signalAll();
+            this.notFull.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+        if (this.onClose != null) {
+            this.onClose.run();
+        }
+    }
+}
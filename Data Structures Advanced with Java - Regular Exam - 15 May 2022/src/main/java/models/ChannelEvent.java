@@ -0,0 +1,33 @@
+package models;
+
+public class ChannelEvent {
+
+    public enum Type {
+        MESSAGE,
+        REACTION
+    }
+
+    private final Type type;
+
+    private final Message message;
+
+    private final String reaction;
+
+    public ChannelEvent(Type type, Message message, String reaction) {
+        this.type = type;
+        this.message = message;
+        this.reaction = reaction;
+    }
+
+    public Type getType() {
+        return this.type;
+    }
+
+    public Message getMessage() {
+        return this.message;
+    }
+
+    public String getReaction() {
+        return this.reaction;
+    }
+}
@@ -0,0 +1,39 @@
+package models;
+
+import java.util.List;
+
+public class Journey {
+    private final List<String> locationPoints;
+
+    private final List<String> routeIds;
+
+    private final double distance;
+
+    public Journey(List<String> locationPoints, List<String> routeIds, double distance) {
+        this.locationPoints = locationPoints;
+        this.routeIds = routeIds;
+        this.distance = distance;
+    }
+
+    public List<String> getLocationPoints() {
+        return this.locationPoints;
+    }
+
+    public List<String> getRouteIds() {
+        return this.routeIds;
+    }
+
+    public double getDistance() {
+        return this.distance;
+    }
+
+    public int getTransfers() {
+        int transfers = 0;
+        for (int i = 1; i < this.routeIds.size(); i++) {
+            if (!this.routeIds.get(i).equals(this.routeIds.get(i - 1))) {
+                transfers++;
+            }
+        }
+        return transfers;
+    }
+}
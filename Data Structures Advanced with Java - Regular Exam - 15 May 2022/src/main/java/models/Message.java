@@ -1,6 +1,8 @@
 package models;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 
 public class Message {
@@ -14,6 +16,8 @@ public class Message {
 
     private List<String> reactions;
 
+    private volatile Object owner;
+
     public Message(String id, String content, Integer timestamp, String channel) {
         this.id = id;
         this.content = content;
@@ -38,6 +42,10 @@ public class Message {
         this.content = content;
     }
 
+    public int getContentLength() {
+        return content == null ? 0 : content.length();
+    }
+
     public int getTimestamp() {
         return timestamp;
     }
@@ -55,10 +63,39 @@ public class Message {
     }
 
     public List<String> getReactions() {
-        return reactions;
+        return Collections.unmodifiableList(reactions);
+    }
+
+    public List<String> getDistinctReactions() {
+        if (reactions instanceof ReactionList) {
+            return ((ReactionList) reactions).distinct();
+        }
+        return new ArrayList<>(new LinkedHashSet<>(reactions));
     }
 
     public void setReactions(List<String> reactions) {
+        if (owner != null) {
+            throw new IllegalStateException();
+        }
+        this.reactions = new ArrayList<>(reactions);
+    }
+
+    public boolean isAttachableTo(Object owner) {
+        Object current = this.owner;
+        return current == null || current == owner;
+    }
+
+    public void attach(Object owner, ReactionList reactions) {
+        if (!isAttachableTo(owner)) {
+            throw new IllegalStateException();
+        }
+        this.owner = owner;
         this.reactions = reactions;
     }
+
+    public void detach(Object owner) {
+        if (this.owner == owner) {
+            this.owner = null;
+        }
+    }
 }
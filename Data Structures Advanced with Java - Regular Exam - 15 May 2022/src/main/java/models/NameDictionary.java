@@ -0,0 +1,66 @@
+package models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class NameDictionary {
+
+    private final Map<String, Integer> ids;
+    private volatile String[] names;
+    private volatile int nullId;
+    private int size;
+
+    public NameDictionary() {
+        this.ids = new ConcurrentHashMap<>();
+        this.names = new String[16];
+        this.nullId = -1;
+    }
+
+    public int encode(String name) {
+        Integer id = name == null ? null : this.ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (name == null && this.nullId != -1) {
+            return this.nullId;
+        }
+        synchronized (this) {
+            id = name == null ? null : this.ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            if (name == null && this.nullId != -1) {
+                return this.nullId;
+            }
+            if (this.size == this.names.length) {
+                this.names = Arrays.copyOf(this.names, this.size * 2);
+            }
+            String[] current = this.names;
+            current[this.size] = name;
+            this.names = current;
+            if (name == null) {
+                this.nullId = this.size;
+            } else {
+                this.ids.put(name, this.size);
+            }
+            return this.size++;
+        }
+    }
+
+    public int find(String name) {
+        if (name == null) {
+            return this.nullId;
+        }
+        Integer id = this.ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    public String decode(int id) {
+        return this.names[id];
+    }
+
+    public int size() {
+        return this.ids.size() + (this.nullId == -1 ? 0 : 1);
+    }
+}
@@ -0,0 +1,127 @@
+package models;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class ReactionList extends AbstractList<String> {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final NameDictionary dictionary;
+    private int[] ids;
+    private int[] counts;
+    private int distinct;
+    private int size;
+
+    public ReactionList(NameDictionary dictionary) {
+        this.dictionary = dictionary;
+        this.ids = EMPTY;
+        this.counts = EMPTY;
+    }
+
+    public ReactionList(NameDictionary dictionary, Collection<String> reactions) {
+        this(dictionary);
+        this.addAll(reactions);
+    }
+
+    private int indexOfId(int id) {
+        for (int i = 0; i < this.distinct; i++) {
+            if (this.ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean add(String reaction) {
+        int id = this.dictionary.encode(reaction);
+        int index = this.indexOfId(id);
+        if (index == -1) {
+            if (this.distinct == this.ids.length) {
+                int capacity = Math.max(2, this.distinct * 2);
+                this.ids = Arrays.copyOf(this.ids, capacity);
+                this.counts = Arrays.copyOf(this.counts, capacity);
+            }
+            index = this.distinct++;
+            this.ids[index] = id;
+        }
+        this.counts[index]++;
+        this.size++;
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public String get(int index) {
+        return this.dictionary.decode(this.ids[this.bucketOf(index)]);
+    }
+
+    @Override
+    public String remove(int index) {
+        int bucket = this.bucketOf(index);
+        String reaction = this.dictionary.decode(this.ids[bucket]);
+        if (--this.counts[bucket] == 0) {
+            System.arraycopy(this.ids, bucket + 1, this.ids, bucket, this.distinct - bucket - 1);
+            System.arraycopy(this.counts, bucket + 1, this.counts, bucket, this.distinct - bucket - 1);
+            this.distinct--;
+        }
+        this.size--;
+        this.modCount++;
+        return reaction;
+    }
+
+    @Override
+    public void clear() {
+        this.distinct = 0;
+        this.size = 0;
+        this.modCount++;
+    }
+
+    private int bucketOf(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        for (int i = 0; i < this.distinct; i++) {
+            if (index < this.counts[i]) {
+                return i;
+            }
+            index -= this.counts[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return (o == null || o instanceof String) && this.count((String) o) > 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    public int count(String reaction) {
+        int id = this.dictionary.find(reaction);
+        if (id == -1) {
+            return 0;
+        }
+        int index = this.indexOfId(id);
+        return index == -1 ? 0 : this.counts[index];
+    }
+
+    public int[] distinctIds() {
+        return Arrays.copyOf(this.ids, this.distinct);
+    }
+
+    public List<String> distinct() {
+        List<String> result = new ArrayList<>(this.distinct);
+        for (int i = 0; i < this.distinct; i++) {
+            result.add(this.dictionary.decode(this.ids[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,127 @@
+package core;
+
+import models.Route;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentMoovItTests {
+    private static final int THREADS = 8;
+
+    private MoovIt moovIt;
+
+    @Before
+    public void setup() {
+        this.moovIt = new ConcurrentMoovItImpl();
+    }
+
+    @Test
+    public void testChooseRoute_WithConcurrentChoosers_ShouldCountEveryChoice() throws Exception {
+        int routes = 20;
+        int perThread = 10_000;
+        for (int i = 0; i < routes; i++) {
+            this.moovIt.addRoute(new Route("Test" + i, 100d + i, 0, true, List.of("Start" + i, "Sofia")));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    this.moovIt.chooseRoute("Test" + (i + thread) % (i % 3 == 0 ? 2 : routes));
+                    if (i % 1_000 == 0) {
+                        this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int total = 0;
+        for (int i = 0; i < routes; i++) {
+            total += this.moovIt.getRoute("Test" + i).getPopularity();
+        }
+        assertEquals(THREADS * perThread, total);
+
+        List<Route> top = StreamSupport.stream(
+                        this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints().spliterator(), false)
+                .collect(Collectors.toList());
+        List<Route> favorites = StreamSupport.stream(this.moovIt.getFavoriteRoutes("Sofia").spliterator(), false)
+                .collect(Collectors.toList());
+        assertEquals(5, top.size());
+        assertEquals(routes, favorites.size());
+        for (int i = 1; i < top.size(); i++) {
+            assertTrue(top.get(i - 1).getPopularity() >= top.get(i).getPopularity());
+        }
+        assertEquals(List.of("Test0", "Test1"), top.subList(0, 2).stream().map(Route::getId).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testChooseRoute_WhileFolding_ShouldNotLoseChoices() throws Exception {
+        ConcurrentMoovItImpl moovIt = new ConcurrentMoovItImpl();
+        moovIt.addRoute(new Route("Test1", 100d, 0, true, List.of("Sofia", "Burgas")));
+        int perThread = 20_000;
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        List<Future<?>> choosers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            choosers.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    moovIt.chooseRoute("Test1");
+                }
+                return null;
+            }));
+        }
+        Future<?> folder = executor.submit(() -> {
+            start.await();
+            while (choosers.stream().anyMatch(future -> !future.isDone())) {
+                moovIt.fold();
+            }
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> future : choosers) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        folder.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(THREADS * perThread, (int) moovIt.getRoute("Test1").getPopularity());
+    }
+
+    @Test
+    public void testChooseRoute_WithMissingRoute_ShouldThrow() {
+        this.moovIt.addRoute(new Route("Test1", 100d, 0, false, List.of("Sofia", "Burgas")));
+        this.moovIt.chooseRoute("Test1");
+        this.moovIt.removeRoute("Test1");
+
+        assertThrows(IllegalArgumentException.class, () -> this.moovIt.chooseRoute("Test1"));
+        assertThrows(IllegalArgumentException.class, () -> this.moovIt.getRoute("Test1"));
+        assertEquals(0, this.moovIt.size());
+    }
+}
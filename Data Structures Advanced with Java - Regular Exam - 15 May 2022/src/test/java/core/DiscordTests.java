@@ -1,13 +1,26 @@
 package core;
 
+import models.ChannelEvent;
 import models.Message;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import static org.junit.Assert.assertEquals;
@@ -18,6 +31,9 @@ public class DiscordTests {
         void execute();
     }
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private Discord discord;
 
     private Message getRandomMessage() {
@@ -412,4 +428,506 @@ public class DiscordTests {
             Assert.assertEquals(expected[counter++], message.getId());
         }
     }
+
+    @Test
+    public void test_getChannelMessages_shouldFollowDeletes() {
+        Message Message = new Message("asd", "bsd", 4000, "test");
+        Message Message2 = new Message("dsd", "esd", 5000, "test");
+        Message Message3 = new Message("hsd", "isd", 6000, "test");
+        Message Message4 = new Message("ksd", "test", 4000, "test2");
+
+        this.discord.sendMessage(Message);
+        this.discord.sendMessage(Message2);
+        this.discord.sendMessage(Message3);
+        this.discord.sendMessage(Message4);
+
+        this.discord.deleteMessage("dsd");
+        this.discord.deleteMessage("ksd");
+
+        List<Message> messages = StreamSupport.stream(this.discord.getChannelMessages("test").spliterator(), false).collect(Collectors.toList());
+        Assert.assertEquals(List.of(Message, Message3), messages);
+
+        boolean catched = false;
+        try {
+            this.discord.getChannelMessages("test2");
+        } catch (IllegalArgumentException e) {
+            catched = true;
+        }
+        assertTrue(catched);
+    }
+
+    @Test
+    public void test_getMessagesByReactions_shouldIgnoreDeletedMessages_andUnknownReactions() {
+        Message Message = new Message("asd", "bsd", 5500, "test");
+        Message Message2 = new Message("csd", "dsd", 5000, "pest");
+        Message Message3 = new Message("esd", "fsd", 4000, "mest");
+
+        this.discord.sendMessage(Message);
+        this.discord.sendMessage(Message2);
+        this.discord.sendMessage(Message3);
+
+        this.discord.reactToMessage(Message.getId(), "lol");
+        this.discord.reactToMessage(Message2.getId(), "lol");
+        this.discord.reactToMessage(Message3.getId(), "lol");
+        this.discord.reactToMessage(Message3.getId(), "heart");
+
+        this.discord.deleteMessage(Message3.getId());
+
+        List<Message> messages = StreamSupport.stream(this.discord.getMessagesByReactions(List.of("lol")).spliterator(), false)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of(Message2, Message), messages);
+
+        Assert.assertFalse(this.discord.getMessagesByReactions(List.of("lol", "heart")).iterator().hasNext());
+        Assert.assertFalse(this.discord.getMessagesByReactions(List.of("unknown")).iterator().hasNext());
+    }
+
+    @Test
+    public void test_getMessageInTimeRange_shouldFollowSendsAndDeletes_afterFirstQuery() {
+        Message Message = new Message("asd", "bsd", 6000, "test1");
+        Message Message2 = new Message("dsd", "esd", 5000, "test1");
+        Message Message3 = new Message("hsd", "isd", 4500, "test2");
+
+        this.discord.sendMessage(Message);
+        this.discord.sendMessage(Message2);
+
+        Assert.assertEquals(List.of(Message2), StreamSupport.stream(this.discord.getMessageInTimeRange(4000, 5999).spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.discord.sendMessage(Message3);
+        this.discord.deleteMessage("dsd");
+
+        List<Message> messages = StreamSupport.stream(this.discord.getMessageInTimeRange(4000, 6000).spliterator(), false)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of(Message, Message3), messages);
+        Assert.assertFalse(this.discord.getMessageInTimeRange(6000, 4000).iterator().hasNext());
+    }
+
+    @Test
+    public void test_getTop3MostReactedMessages_shouldRepositionMessages_afterNewReactions() {
+        Message Message = new Message("asd", "bsd", 6000, "test1");
+        Message Message2 = new Message("dsd", "esd", 5000, "test1");
+        Message Message3 = new Message("hsd", "isd", 6000, "test2");
+        Message Message4 = new Message("ksd", "test", 4000, "test2");
+
+        this.discord.sendMessage(Message);
+        this.discord.sendMessage(Message2);
+        this.discord.sendMessage(Message3);
+
+        this.discord.reactToMessage("hsd", "1");
+        Assert.assertEquals(List.of(Message3, Message, Message2), StreamSupport.stream(this.discord.getTop3MostReactedMessages().spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.discord.sendMessage(Message4);
+        this.discord.reactToMessage("ksd", "1");
+        this.discord.reactToMessage("ksd", "2");
+        this.discord.deleteMessage("asd");
+
+        Assert.assertEquals(List.of(Message4, Message3, Message2), StreamSupport.stream(this.discord.getTop3MostReactedMessages().spliterator(), false)
+                .collect(Collectors.toList()));
+
+        List<Message> page = StreamSupport.stream(((DiscordImpl) this.discord).getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent(1, 1).spliterator(), false)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of(Message3), page);
+    }
+
+    @Test
+    public void test_sendMessage_shouldAcceptNullContent() {
+        Message empty = new Message("asd", null, 6000, "test1");
+        Message Message2 = new Message("dsd", "esd", 6000, "test1");
+
+        this.discord.sendMessage(Message2);
+        this.discord.sendMessage(empty);
+
+        Assert.assertEquals(2, this.discord.size());
+        Assert.assertEquals(List.of(empty, Message2), StreamSupport.stream(this.discord.getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent().spliterator(), false)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void test_removeReaction_shouldRepositionMessages_inLeaderboards() {
+        Message Message = new Message("asd", "bsd", 6000, "test1");
+        Message Message2 = new Message("dsd", "esd", 5000, "test1");
+        Message Message3 = new Message("hsd", "isd", 7000, "test2");
+
+        this.discord.sendMessage(Message);
+        this.discord.sendMessage(Message2);
+        this.discord.sendMessage(Message3);
+        this.discord.reactToMessage("asd", "1");
+        this.discord.reactToMessage("asd", "1");
+        this.discord.reactToMessage("hsd", "2");
+
+        Assert.assertEquals(List.of(Message, Message3, Message2), StreamSupport.stream(this.discord.getTop3MostReactedMessages().spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.discord.removeReaction("asd", "1");
+        this.discord.removeReaction("asd", "1");
+
+        Assert.assertEquals(List.of(Message3, Message, Message2), StreamSupport.stream(this.discord.getTop3MostReactedMessages().spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of(Message3, Message2, Message), StreamSupport.stream(this.discord.getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent().spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(0, Message.getReactions().size());
+    }
+
+    @Test
+    public void test_reactToMessage_shouldKeepListStyleReactions_whenDuplicated() {
+        Message Message = new Message("asd", "bsd", 6000, "test1");
+
+        this.discord.sendMessage(Message);
+        for (int i = 0; i < 1000; i++) {
+            this.discord.reactToMessage("asd", "lol");
+        }
+        this.discord.reactToMessage("asd", "heart");
+        this.discord.reactToMessage("asd", "lol");
+
+        List<String> reactions = this.discord.getMessage("asd").getReactions();
+        Assert.assertEquals(1002, reactions.size());
+        Assert.assertTrue(reactions.contains("heart"));
+        Assert.assertFalse(reactions.contains("thumbsup"));
+        Assert.assertEquals("lol", reactions.get(1000));
+        Assert.assertEquals("heart", reactions.get(1001));
+        Assert.assertEquals(List.of("lol", "heart"), Message.getDistinctReactions());
+
+        Assert.assertThrows(UnsupportedOperationException.class, () -> reactions.remove("heart"));
+        Assert.assertEquals(1, StreamSupport.stream(this.discord.getMessagesByReactions(List.of("heart")).spliterator(), false).count());
+
+        this.discord.removeReaction("asd", "heart");
+        Assert.assertEquals(1001, reactions.size());
+        Assert.assertEquals(List.of("lol"), Message.getDistinctReactions());
+        Assert.assertFalse(this.discord.getMessagesByReactions(List.of("heart")).iterator().hasNext());
+        Assert.assertEquals(1, StreamSupport.stream(this.discord.getMessagesByReactions(List.of("lol")).spliterator(), false).count());
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.discord.removeReaction("asd", "heart"));
+    }
+
+    @Test
+    public void test_storedMessage_shouldOnlyChangeReactionsThroughDiscord() {
+        Message message = new Message("asd", "bsd", 6000, "test1");
+        message.setReactions(List.of("lol"));
+        this.discord.sendMessage(message);
+        this.discord.reactToMessage("asd", "heart");
+
+        Assert.assertThrows(IllegalStateException.class, () -> message.setReactions(List.of("heart")));
+        Assert.assertEquals(List.of("lol", "heart"), message.getReactions());
+
+        Discord other = new DiscordImpl();
+        other.sendMessage(message);
+        Message copy = other.getMessage("asd");
+        Assert.assertNotSame(message, copy);
+        other.reactToMessage("asd", "lol");
+        Assert.assertEquals(List.of("lol", "heart"), message.getReactions());
+        Assert.assertEquals(3, copy.getReactions().size());
+        Assert.assertEquals(1, StreamSupport.stream(this.discord.getMessagesByReactions(List.of("lol", "heart")).spliterator(), false).count());
+
+        this.discord.deleteMessage("asd");
+        message.setReactions(List.of("thumbsup"));
+        other.sendMessage(message);
+        Assert.assertEquals(List.of("thumbsup"), other.getMessage("asd").getReactions());
+    }
+
+    @Test
+    public void test_messageLog_shouldServeContentFromSegments_andCompactDeletedMessages() throws Exception {
+        try (MessageLog log = new MessageLog(this.folder.newFolder().toPath(), 64, 0.5)) {
+            Discord logged = new DiscordImpl(log);
+
+            for (int i = 0; i < 10; i++) {
+                logged.sendMessage(new Message("id" + i, "content-" + i, 1000 + i, "channel" + i % 2));
+            }
+            int segments = log.getSegmentCount();
+            Assert.assertTrue(segments > 1);
+
+            Assert.assertEquals("content-3", logged.getMessage("id3").getContent());
+            Assert.assertEquals(List.of("id1", "id3", "id5", "id7", "id9"), StreamSupport.stream(logged.getChannelMessages("channel1").spliterator(), false)
+                    .map(Message::getId)
+                    .collect(Collectors.toList()));
+
+            for (int i = 0; i < 8; i++) {
+                logged.deleteMessage("id" + i);
+            }
+
+            Assert.assertTrue(log.getSegmentCount() < segments);
+            Assert.assertEquals("content-8", logged.getMessage("id8").getContent());
+            Assert.assertEquals("content-9", logged.getMessage("id9").getContent());
+
+            logged.getMessage("id9").setContent("edited");
+            Assert.assertEquals("edited", logged.getMessage("id9").getContent());
+            Assert.assertEquals(2, logged.size());
+        }
+    }
+
+    @Test
+    public void test_messageLog_shouldKeepHeldMessagesReadable_afterCompaction() throws Exception {
+        Message sent = new Message("id0", "content-0", 1000, "channel");
+        Message held;
+        try (MessageLog log = new MessageLog(this.folder.newFolder().toPath(), 64, 0.5)) {
+            Discord logged = new DiscordImpl(log);
+            logged.sendMessage(sent);
+            for (int i = 1; i < 10; i++) {
+                logged.sendMessage(new Message("id" + i, "content-" + i, 1000 + i, "channel"));
+            }
+            held = logged.getMessage("id0");
+            Assert.assertNotSame(sent, held);
+            Assert.assertEquals(sent.getContent(), held.getContent());
+            Message kept = logged.getMessage("id9");
+
+            int segments = log.getSegmentCount();
+            for (int i = 0; i < 8; i++) {
+                logged.deleteMessage("id" + i);
+            }
+            Assert.assertTrue(log.getSegmentCount() < segments);
+            Assert.assertEquals("content-0", held.getContent());
+            Assert.assertEquals(9, held.getContentLength());
+            held.setContent("edited");
+            Assert.assertEquals("edited", held.getContent());
+            Assert.assertEquals("content-9", kept.getContent());
+
+            log.close();
+            Assert.assertThrows(IllegalStateException.class, kept::getContent);
+        }
+        Assert.assertEquals("edited", held.getContent());
+    }
+
+    @Test
+    public void test_messageLog_shouldLetLoggedMessagesMoveBetweenStores() throws Exception {
+        Path directory = this.folder.newFolder().toPath();
+        try (MessageLog log = new MessageLog(directory, 64, 0.5);
+             MessageLog otherLog = new MessageLog(this.folder.newFolder().toPath(), 64, 0.5)) {
+            Discord logged = new DiscordImpl(log);
+            for (int i = 0; i < 10; i++) {
+                logged.sendMessage(new Message("id" + i, "content-" + i, 1000 + i, "channel"));
+            }
+            logged.sendMessage(new Message("empty", null, 2000, "channel"));
+            Assert.assertNull(logged.getMessage("empty").getContent());
+
+            Discord plain = new DiscordImpl();
+            Discord other = new DiscordImpl(otherLog);
+            plain.sendMessage(logged.getMessage("id1"));
+            other.sendMessage(logged.getMessage("id2"));
+            plain.deleteMessage("id1");
+            other.deleteMessage("id2");
+            Assert.assertEquals("content-1", logged.getMessage("id1").getContent());
+            Assert.assertEquals("content-2", logged.getMessage("id2").getContent());
+
+            for (int i = 0; i < 8; i++) {
+                logged.deleteMessage("id" + i);
+            }
+            Assert.assertEquals(0, log.getPendingDeleteCount());
+            try (Stream<Path> files = Files.list(directory)) {
+                Assert.assertEquals(log.getSegmentCount(), files.count());
+            }
+            Assert.assertEquals("content-9", logged.getMessage("id9").getContent());
+        }
+    }
+
+    @Test
+    public void test_retentionPolicy_shouldEvictByAge_channelCap_andMemoryBudget() {
+        DiscordImpl retained = new DiscordImpl();
+        for (int i = 0; i < 10; i++) {
+            retained.sendMessage(new Message("id" + i, "content", i * 100, "channel" + i % 2));
+        }
+
+        retained.setRetentionPolicy(new RetentionPolicy(500, 0, 0, 1000));
+        Assert.assertEquals(6, retained.size());
+        Assert.assertFalse(retained.contains(new Message("id3", "content", 300, "channel1")));
+        Assert.assertEquals(List.of("id5", "id7", "id9"), StreamSupport.stream(retained.getChannelMessages("channel1").spliterator(), false)
+                .map(Message::getId)
+                .collect(Collectors.toList()));
+
+        retained.setRetentionPolicy(new RetentionPolicy(0, 2, 0, 1));
+        Assert.assertEquals(4, retained.size());
+        retained.sendMessage(new Message("id10", "content", 1000, "channel0"));
+        Assert.assertEquals(List.of("id8", "id10"), StreamSupport.stream(retained.getChannelMessages("channel0").spliterator(), false)
+                .map(Message::getId)
+                .collect(Collectors.toList()));
+
+        retained.setRetentionPolicy(new RetentionPolicy(0, 0, 1, 1));
+        Assert.assertEquals(0, retained.size());
+        Assert.assertFalse(retained.getMessageInTimeRange(0, 2000).iterator().hasNext());
+        Assert.assertFalse(retained.getTop3MostReactedMessages().iterator().hasNext());
+    }
+
+    @Test
+    public void test_subscribe_shouldReplayFromTimestamp_thenPushMessagesAndReactions() throws Exception {
+        this.discord.sendMessage(new Message("id1", "content", 10, "general"));
+        this.discord.sendMessage(new Message("id2", "content", 20, "general"));
+        this.discord.sendMessage(new Message("id3", "content", 30, "random"));
+
+        Subscription subscription = this.discord.subscribe("general", 15);
+        this.discord.sendMessage(new Message("id4", "content", 40, "general"));
+        this.discord.sendMessage(new Message("id5", "content", 50, "random"));
+        this.discord.reactToMessage("id2", ":)");
+        this.discord.reactToMessage("id1", ":(");
+
+        ChannelEvent replayed = subscription.poll();
+        Assert.assertEquals(ChannelEvent.Type.MESSAGE, replayed.getType());
+        Assert.assertEquals("id2", replayed.getMessage().getId());
+        Assert.assertEquals("id4", subscription.take().getMessage().getId());
+        ChannelEvent reaction = subscription.poll(1, TimeUnit.SECONDS);
+        Assert.assertEquals(ChannelEvent.Type.REACTION, reaction.getType());
+        Assert.assertEquals("id2", reaction.getMessage().getId());
+        Assert.assertEquals(":)", reaction.getReaction());
+        Assert.assertNull(subscription.poll());
+
+        subscription.close();
+        this.discord.sendMessage(new Message("id6", "content", 60, "general"));
+        Assert.assertNull(subscription.poll());
+    }
+
+    @Test
+    public void test_subscribe_withDropOldest_shouldKeepNewestEvents() {
+        Subscription subscription = this.discord.subscribe("general", 0, 2, Subscription.Backpressure.DROP_OLDEST);
+        for (int i = 0; i < 5; i++) {
+            this.discord.sendMessage(new Message("id" + i, "content", i, "general"));
+        }
+
+        Assert.assertEquals(3, subscription.getDropped());
+        Assert.assertEquals("id3", subscription.poll().getMessage().getId());
+        Assert.assertEquals("id4", subscription.poll().getMessage().getId());
+        Assert.assertNull(subscription.poll());
+    }
+
+    @Test
+    public void test_subscribe_shouldStreamReplayThroughBoundedBuffer() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            this.discord.sendMessage(new Message("id" + i, "content", i, "general"));
+        }
+        Subscription subscription = this.discord.subscribe("general", 10, 2, Subscription.Backpressure.BLOCK);
+        Assert.assertEquals("id10", subscription.poll().getMessage().getId());
+        this.discord.deleteMessage("id11");
+        this.discord.deleteMessage("id50");
+        this.discord.sendMessage(new Message("id100", "content", 100, "general"));
+
+        List<String> received = new ArrayList<>();
+        for (ChannelEvent event = subscription.poll(); event != null; event = subscription.poll()) {
+            received.add(event.getMessage().getId());
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 12; i <= 100; i++) {
+            if (i != 50) {
+                expected.add("id" + i);
+            }
+        }
+        Assert.assertEquals(expected, received);
+        Assert.assertEquals(0, subscription.getDropped());
+    }
+
+    @Test
+    public void test_subscribe_shouldReplayWhileProducerChangesChannel() throws Exception {
+        for (int i = 0; i < 2_000; i++) {
+            this.discord.sendMessage(new Message("id" + i, "content", i, "general"));
+        }
+        Subscription subscription = this.discord.subscribe("general", null, 4, Subscription.Backpressure.DROP_OLDEST);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<List<Integer>> replayed = executor.submit(() -> {
+            List<Integer> timestamps = new ArrayList<>();
+            for (ChannelEvent event = subscription.poll(); event != null; event = subscription.poll()) {
+                timestamps.add(event.getMessage().getTimestamp());
+            }
+            return timestamps;
+        });
+        for (int i = 0; i < 2_000; i += 3) {
+            this.discord.deleteMessage("id" + i);
+        }
+
+        List<Integer> timestamps = replayed.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        for (int i = 1; i < timestamps.size(); i++) {
+            Assert.assertTrue(timestamps.get(i - 1) < timestamps.get(i));
+        }
+    }
+
+    @Test
+    public void test_subscribe_shouldNotInternUnusedChannels_andForgetClosedSubscriptions() {
+        DiscordImpl discord = new DiscordImpl();
+        discord.sendMessage(new Message("id1", "content", 1, "general"));
+        int names = discord.getChannelNameCount();
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            subscriptions.add(discord.subscribe("unused-" + i, null));
+        }
+        Subscription general = discord.subscribe("general", null);
+
+        Assert.assertEquals(names, discord.getChannelNameCount());
+        Assert.assertEquals(101, discord.getSubscriptionCount());
+        Assert.assertEquals("id1", general.poll().getMessage().getId());
+        subscriptions.forEach(Subscription::close);
+        general.close();
+        Assert.assertEquals(0, discord.getSubscriptionCount());
+    }
+
+    @Test
+    public void test_subscribe_withBlockingSubscribers_shouldDeliverEveryMessageInOrder() throws Exception {
+        int subscribers = 16;
+        int count = 5_000;
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions.add(this.discord.subscribe("general", 0, 8, Subscription.Backpressure.BLOCK));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(subscribers);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < count; i++) {
+                    if (!("id" + i).equals(subscription.take().getMessage().getId())) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+
+        for (int i = 0; i < count; i++) {
+            this.discord.sendMessage(new Message("id" + i, "content", i, "general"));
+        }
+
+        for (Future<Boolean> future : futures) {
+            Assert.assertTrue(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        for (Subscription subscription : subscriptions) {
+            Assert.assertEquals(0, subscription.getDropped());
+        }
+    }
+
+    @Test
+    public void test_channelAndReactionNames_shouldBeDictionaryEncoded() {
+        Message first = new Message("id1", "content", 1, new String("general"));
+        Message second = new Message("id2", "content", 2, new String("general"));
+        this.discord.sendMessage(first);
+        this.discord.sendMessage(second);
+        this.discord.reactToMessage("id1", new String(":)"));
+        this.discord.reactToMessage("id2", new String(":)"));
+
+        Assert.assertEquals(List.of("id1", "id2"), StreamSupport.stream(this.discord.getChannelMessages("general").spliterator(), false)
+                .map(Message::getId)
+                .collect(Collectors.toList()));
+        Assert.assertSame(first.getChannel(), second.getChannel());
+        Assert.assertSame(first.getReactions().get(0), second.getReactions().get(0));
+        Assert.assertEquals(2, StreamSupport.stream(this.discord.getMessagesByReactions(List.of(":)")).spliterator(), false).count());
+    }
+
+    @Test
+    public void test_nameDictionaries_shouldBeScopedToTheStore_andAcceptNullNames() {
+        DiscordImpl first = new DiscordImpl();
+        DiscordImpl second = new DiscordImpl();
+        first.sendMessage(new Message("id1", "content", 1, "general"));
+        first.sendMessage(new Message("id2", "content", 2, "random"));
+        Assert.assertEquals(2, first.getChannelNameCount());
+        Assert.assertEquals(0, second.getChannelNameCount());
+
+        second.sendMessage(new Message("id3", "content", 3, null));
+        second.sendMessage(new Message("id4", "content", 4, "general"));
+        second.reactToMessage("id3", null);
+        second.reactToMessage("id3", ":)");
+
+        Assert.assertEquals(List.of("id3"), StreamSupport.stream(second.getChannelMessages(null).spliterator(), false)
+                .map(Message::getId)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList(null, ":)"), second.getMessage("id3").getReactions());
+        Assert.assertEquals(1, StreamSupport.stream(second.getMessagesByReactions(Collections.singletonList(null)).spliterator(), false).count());
+        second.removeReaction("id3", null);
+        Assert.assertFalse(second.getMessagesByReactions(Collections.singletonList(null)).iterator().hasNext());
+        Assert.assertEquals(2, second.getChannelNameCount());
+    }
 }
@@ -1,12 +1,20 @@
 package core;
 
+import models.Journey;
 import models.Route;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -18,6 +26,9 @@ public class MoovItTests {
         void execute();
     }
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private MoovIt moovIt;
 
     private List<String> getRandomLocationPoints() {
@@ -66,6 +77,21 @@ public class MoovItTests {
         assertTrue(this.moovIt.contains(route2));
     }
 
+    @Test
+    public void testContains_WithStructuralKey_ShouldMatchDistanceAndEndpointsOnly() {
+        Route route = new Route("Test1", 10D, 1, false, List.of("Sofia", "Plovdiv", "Burgas"));
+        this.moovIt.addRoute(route);
+
+        assertTrue(this.moovIt.contains(new Route("Other", 10D, 5, true, List.of("Sofia", "Varna", "Burgas"))));
+        assertFalse(this.moovIt.contains(new Route("Other", 10.5D, 1, false, List.of("Sofia", "Plovdiv", "Burgas"))));
+        assertFalse(this.moovIt.contains(new Route("Other", 10D, 1, false, List.of("Burgas", "Plovdiv", "Sofia"))));
+
+        this.moovIt.removeRoute("Test1");
+        assertFalse(this.moovIt.contains(new Route("Other", 10D, 1, false, List.of("Sofia", "Burgas"))));
+        this.moovIt.addRoute(new Route("Test2", 10D, 1, false, List.of("Sofia", "Burgas")));
+        assertEquals(1, this.moovIt.size());
+    }
+
     @Test
     public void testCount_With5Routes_ShouldReturn5() {
         this.moovIt.addRoute(this.getRandomRoute());
@@ -113,6 +139,31 @@ public class MoovItTests {
         assertEquals(route3, routes.get(2));
     }
 
+    @Test
+    public void testSearchRoutes_AfterAddAndRemove_ShouldUseFirstPositionsAndKeepIndexCurrent() {
+        Route route = new Route("Test1", 10D, 5, false, List.of("Sofia", "Plovdiv", "Sofia", "Burgas"));
+        Route route2 = new Route("Test2", 20D, 5, true, List.of("Burgas", "Sofia", "Varna"));
+        Route route3 = new Route("Test3", 30D, 9, false, List.of("Ruse", "Sofia", "Plovdiv", "Burgas"));
+
+        this.moovIt.addRoute(route);
+        this.moovIt.addRoute(route2);
+        assertEquals(List.of(route), StreamSupport.stream(this.moovIt.searchRoutes("Sofia", "Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.moovIt.addRoute(route3);
+        assertEquals(List.of(route3, route), StreamSupport.stream(this.moovIt.searchRoutes("Sofia", "Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.moovIt.removeRoute("Test3");
+        assertEquals(List.of(route), StreamSupport.stream(this.moovIt.searchRoutes("Sofia", "Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(route2), StreamSupport.stream(this.moovIt.searchRoutes("Burgas", "Varna").spliterator(), false)
+                .collect(Collectors.toList()));
+        assertEquals(List.of(route2), StreamSupport.stream(this.moovIt.searchRoutes("Burgas", "Sofia").spliterator(), false)
+                .collect(Collectors.toList()));
+        assertFalse(this.moovIt.searchRoutes("Sofia", "Missing").iterator().hasNext());
+    }
+
     @Test
     public void testRemoveRoute_WithCorrectData_ShouldSuccessfullyRemoveRoute() {
         Route route = new Route("Test1", 100D, 50, true, List.of("Sofia", "Plovdiv", "Stara Zagora", "Burgas"));
@@ -227,6 +278,34 @@ public class MoovItTests {
         }
     }
 
+    @Test
+    public void test_getFavoriteRoutes_shouldReorderOnChooseRoute_andDropRemovedRoutes() {
+        Route route_1 = new Route("Test1", 200d, 1, true, List.of("Sofia", "Plovdiv", "Burgas"));
+        Route route_2 = new Route("Test2", 200d, 2, true, List.of("Ruse", "Burgas"));
+        Route route_3 = new Route("Test3", 100d, 0, true, List.of("Burgas", "Varna", "Burgas"));
+        Route route_4 = new Route("Test4", 50d, 9, false, List.of("Vidin", "Burgas"));
+
+        this.moovIt.addRoute(route_1);
+        this.moovIt.addRoute(route_2);
+        this.moovIt.addRoute(route_3);
+        this.moovIt.addRoute(route_4);
+
+        Assert.assertEquals(List.of(route_2, route_1), StreamSupport.stream(this.moovIt.getFavoriteRoutes("Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.moovIt.chooseRoute("Test1");
+        this.moovIt.chooseRoute("Test1");
+        Assert.assertEquals(List.of(route_1, route_2), StreamSupport.stream(this.moovIt.getFavoriteRoutes("Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+
+        this.moovIt.removeRoute("Test1");
+        Assert.assertEquals(List.of(route_2), StreamSupport.stream(this.moovIt.getFavoriteRoutes("Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of(route_3), StreamSupport.stream(this.moovIt.getFavoriteRoutes("Varna").spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertFalse(this.moovIt.getFavoriteRoutes("Plovdiv").iterator().hasNext());
+    }
+
     @Test
     public void test_getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints_shouldReturnEmptyCollection_whenNoEntities() {
         Iterable<Route> routeIterable = this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints();
@@ -261,4 +340,171 @@ public class MoovItTests {
             Assert.assertEquals(expected[counter++], route.getId());
         }
     }
+
+    @Test
+    public void test_getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints_shouldFollowChooseAndRemove() {
+        for (int i = 0; i < 8; i++) {
+            this.moovIt.addRoute(new Route("Test" + i, 100d + i, 0, false, List.of("Start" + i, "End" + i)));
+        }
+        Assert.assertEquals(List.of("Test0", "Test1", "Test2", "Test3", "Test4"), StreamSupport.stream(
+                        this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints().spliterator(), false)
+                .map(Route::getId)
+                .collect(Collectors.toList()));
+
+        this.moovIt.chooseRoute("Test7");
+        this.moovIt.chooseRoute("Test7");
+        this.moovIt.chooseRoute("Test6");
+        this.moovIt.removeRoute("Test0");
+
+        Assert.assertEquals(List.of("Test7", "Test6", "Test1", "Test2", "Test3"), StreamSupport.stream(
+                        this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints().spliterator(), false)
+                .map(Route::getId)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(2, (int) this.moovIt.getRoute("Test7").getPopularity());
+    }
+
+    @Test
+    public void test_planJourney_shouldTransferBetweenRoutes_andFollowAddAndRemove() {
+        this.moovIt.addRoute(new Route("Test1", 30d, 0, false, List.of("Sofia", "Plovdiv", "Stara Zagora", "Burgas")));
+        this.moovIt.addRoute(new Route("Test2", 20d, 0, false, List.of("Plovdiv", "Haskovo", "Kardzhali")));
+        this.moovIt.addRoute(new Route("Test3", 100d, 0, false, List.of("Sofia", "Kardzhali")));
+
+        Journey journey = this.moovIt.planJourney("Sofia", "Kardzhali");
+        Assert.assertEquals(List.of("Sofia", "Plovdiv", "Haskovo", "Kardzhali"), journey.getLocationPoints());
+        Assert.assertEquals(List.of("Test1", "Test2", "Test2"), journey.getRouteIds());
+        Assert.assertEquals(30d, journey.getDistance(), 1e-9);
+        Assert.assertEquals(1, journey.getTransfers());
+
+        this.moovIt.removeRoute("Test2");
+        Assert.assertEquals(List.of("Test3"), this.moovIt.planJourney("Sofia", "Kardzhali").getRouteIds());
+
+        MoovItImpl planner = (MoovItImpl) this.moovIt;
+        Assert.assertEquals(100d, planner.planJourney("Sofia", "Kardzhali", JourneyPlanner.Mode.CONTRACTION_HIERARCHY).getDistance(), 1e-9);
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.moovIt.planJourney("Burgas", "Sofia"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.moovIt.planJourney("Sofia", "Missing"));
+    }
+
+    @Test
+    public void test_planJourney_withContractionHierarchy_shouldMatchDijkstra() {
+        Random random = new Random(7);
+        MoovItImpl planner = new MoovItImpl();
+        for (int i = 0; i < 300; i++) {
+            List<String> locationPoints = new ArrayList<>();
+            int length = 2 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                locationPoints.add("Stop" + random.nextInt(120));
+            }
+            planner.addRoute(new Route("Test" + i, 1d + random.nextInt(100), 0, false, locationPoints));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            String start = "Stop" + random.nextInt(120);
+            String end = "Stop" + random.nextInt(120);
+            Double expected = null;
+            Double actual = null;
+            try {
+                expected = planner.planJourney(start, end, JourneyPlanner.Mode.DIJKSTRA).getDistance();
+            } catch (IllegalArgumentException ignored) {
+            }
+            try {
+                Journey journey = planner.planJourney(start, end, JourneyPlanner.Mode.CONTRACTION_HIERARCHY);
+                actual = journey.getDistance();
+                Assert.assertEquals(start, journey.getLocationPoints().get(0));
+                Assert.assertEquals(end, journey.getLocationPoints().get(journey.getLocationPoints().size() - 1));
+            } catch (IllegalArgumentException ignored) {
+            }
+            if (expected == null) {
+                Assert.assertNull(actual);
+            } else {
+                Assert.assertEquals(expected, actual, 1e-6);
+            }
+            if (i % 50 == 0) {
+                planner.removeRoute("Test" + i);
+            }
+        }
+    }
+
+    @Test
+    public void test_addRoutes_shouldRejectDuplicatesWithoutPartialInsert() {
+        Route route_1 = new Route("Test1", 10d, 0, false, List.of("Sofia", "Burgas"));
+        Route route_2 = new Route("Test2", 20d, 0, false, List.of("Sofia", "Burgas"));
+        Route route_3 = new Route("Test3", 10d, 0, false, List.of("Sofia", "Burgas"));
+        this.moovIt.searchRoutes("Sofia", "Burgas");
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.moovIt.addRoutes(List.of(route_1, route_2, route_3)));
+        Assert.assertEquals(0, this.moovIt.size());
+
+        this.moovIt.addRoutes(List.of(route_1, route_2));
+        Assert.assertEquals(2, this.moovIt.size());
+        Assert.assertEquals(List.of(route_1, route_2), StreamSupport.stream(this.moovIt.searchRoutes("Sofia", "Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.moovIt.addRoutes(List.of(route_3)));
+    }
+
+    @Test
+    public void test_addRoutes_shouldExtendBuiltIndexes() {
+        Route route_1 = new Route("Test1", 30d, 1, true, List.of("Sofia", "Plovdiv", "Burgas"));
+        Route route_2 = new Route("Test2", 20d, 3, true, List.of("Sofia", "Burgas"));
+        Route route_3 = new Route("Test3", 10d, 2, false, List.of("Plovdiv", "Burgas"));
+        Route route_4 = new Route("Test4", 5d, 0, true, List.of("Varna", "Plovdiv", "Burgas"));
+        this.moovIt.addRoute(route_1);
+        this.moovIt.searchRoutes("Sofia", "Burgas");
+        this.moovIt.getFavoriteRoutes("Burgas");
+        this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints();
+        this.moovIt.planJourney("Sofia", "Burgas");
+
+        this.moovIt.addRoutes(List.of(route_2, route_3, route_4));
+
+        Assert.assertEquals(List.of(route_2, route_1), StreamSupport.stream(this.moovIt.searchRoutes("Sofia", "Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of(route_4, route_2, route_1), StreamSupport.stream(this.moovIt.getFavoriteRoutes("Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of(route_2, route_3, route_1, route_4), StreamSupport.stream(this.moovIt.getTop5RoutesByPopularityThenByDistanceThenByCountOfLocationPoints().spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(17.5d, this.moovIt.planJourney("Sofia", "Burgas").getDistance(), 1e-9);
+
+        this.moovIt.removeRoute("Test2");
+        Assert.assertEquals(List.of(route_1), StreamSupport.stream(this.moovIt.searchRoutes("Sofia", "Burgas").spliterator(), false)
+                .collect(Collectors.toList()));
+        Assert.assertEquals(List.of("Test1", "Test4"), this.moovIt.planJourney("Sofia", "Burgas").getRouteIds());
+    }
+
+    @Test
+    public void test_addRoute_shouldRejectMissingDistance() {
+        Route route_1 = new Route("Test1", null, 0, false, List.of("Sofia", "Burgas"));
+        Route route_2 = new Route("Test2", 10d, 0, false, List.of("Sofia", "Burgas"));
+
+        Assert.assertFalse(this.moovIt.contains(route_1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.moovIt.addRoute(route_1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.moovIt.addRoutes(List.of(route_2, route_1)));
+        Assert.assertEquals(0, this.moovIt.size());
+    }
+
+    @Test
+    public void test_routeLoader_shouldParseChunksInFileOrder_andInternLocations() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            lines.add("Test" + i + "\t" + (i + 0.5) + "\t" + i % 7 + "\t" + (i % 2 == 0) + "\tStop" + i % 50 + "|Hub|Stop" + (i + 1) % 50);
+        }
+        Path file = this.folder.newFile("routes.tsv").toPath();
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        List<Route> routes = new RouteLoader().load(file, 7);
+
+        Assert.assertEquals(5_000, routes.size());
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            Assert.assertEquals("Test" + i, route.getId());
+            Assert.assertEquals(i + 0.5, route.getDistance(), 1e-9);
+            Assert.assertEquals(i % 7, (int) route.getPopularity());
+            Assert.assertEquals(i % 2 == 0, route.getIsFavorite());
+            Assert.assertEquals(List.of("Stop" + i % 50, "Hub", "Stop" + (i + 1) % 50), route.getLocationPoints());
+        }
+        Assert.assertSame(routes.get(0).getLocationPoints().get(1), routes.get(4_999).getLocationPoints().get(1));
+        Assert.assertSame(routes.get(0).getLocationPoints().get(0), routes.get(50).getLocationPoints().get(0));
+
+        this.moovIt.addRoutes(routes);
+        Assert.assertEquals(5_000, this.moovIt.size());
+        Assert.assertEquals(100, StreamSupport.stream(this.moovIt.searchRoutes("Stop3", "Hub").spliterator(), false).count());
+    }
 }
@@ -0,0 +1,259 @@
+package core;
+
+import models.Message;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedDiscordTests {
+    private static final int THREADS = 8;
+
+    private Discord discord;
+    private Discord reference;
+
+    @Before
+    public void setup() {
+        this.discord = new ShardedDiscordImpl(4);
+        this.reference = new DiscordImpl();
+    }
+
+    private static List<String> ids(Iterable<Message> messages) {
+        return StreamSupport.stream(messages.spliterator(), false)
+                .map(Message::getId)
+                .collect(Collectors.toList());
+    }
+
+    private void send(String id, String content, int timestamp, String channel) {
+        this.discord.sendMessage(new Message(id, content, timestamp, channel));
+        this.reference.sendMessage(new Message(id, content, timestamp, channel));
+    }
+
+    private void react(String id, String reaction) {
+        this.discord.reactToMessage(id, reaction);
+        this.reference.reactToMessage(id, reaction);
+    }
+
+    private void assertSameQueries() {
+        assertEquals(this.reference.size(), this.discord.size());
+        assertEquals(ids(this.reference.getTop3MostReactedMessages()), ids(this.discord.getTop3MostReactedMessages()));
+        assertEquals(ids(this.reference.getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent()),
+                ids(this.discord.getAllMessagesOrderedByCountOfReactionsThenByTimestampThenByLengthOfContent()));
+        assertEquals(ids(this.reference.getMessagesByReactions(List.of("a"))), ids(this.discord.getMessagesByReactions(List.of("a"))));
+        assertEquals(ids(this.reference.getMessagesByReactions(List.of("a", "b"))), ids(this.discord.getMessagesByReactions(List.of("a", "b"))));
+        assertEquals(ids(this.reference.getMessageInTimeRange(20, 70)), ids(this.discord.getMessageInTimeRange(20, 70)));
+        for (int channel = 0; channel < 6; channel++) {
+            assertEquals(this.channelIds(this.reference, "c" + channel), this.channelIds(this.discord, "c" + channel));
+        }
+    }
+
+    private List<String> channelIds(Discord discord, String channel) {
+        try {
+            return ids(discord.getChannelMessages(channel));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testSendMessages_WithSameIdOnTwoChannels_ShouldKeepLastEntry() {
+        this.send("m0", "old", 5, "c0");
+        List<Message> batch = List.of(
+                new Message("m1", "first", 10, "c1"),
+                new Message("m0", "moved", 20, "c2"),
+                new Message("m1", "second", 30, "c3"),
+                new Message("m2", "other", 40, "c1"));
+        this.discord.sendMessages(batch);
+        for (Message message : batch) {
+            this.reference.sendMessage(new Message(message.getId(), message.getContent(), message.getTimestamp(), message.getChannel()));
+        }
+
+        assertEquals(3, this.discord.size());
+        assertEquals("second", this.discord.getMessage("m1").getContent());
+        assertEquals("moved", this.discord.getMessage("m0").getContent());
+        this.assertSameQueries();
+    }
+
+    @Test
+    public void testSubscribe_WithFullBlockingSubscriber_ShouldNotHoldShardLock() throws Exception {
+        Subscription subscription = this.discord.subscribe("general", 0, 1, Subscription.Backpressure.BLOCK);
+        this.discord.sendMessage(new Message("m0", "content", 0, "general"));
+        Thread producer = new Thread(() -> this.discord.sendMessage(new Message("m1", "content", 1, "general")));
+        producer.start();
+        while (producer.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Integer> size = executor.submit(() -> this.discord.size());
+        assertEquals(2, (int) size.get(5, TimeUnit.SECONDS));
+        Future<String> content = executor.submit(() -> this.discord.getMessage("m1").getContent());
+        assertEquals("content", content.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        producer.interrupt();
+        producer.join(5_000);
+        assertFalse(producer.isAlive());
+        assertEquals(1, subscription.getDropped());
+        assertEquals("m1", subscription.poll().getMessage().getId());
+    }
+
+    @Test
+    public void testSendAndDelete_WithSameIdRacingAcrossShards_ShouldKeepOneRoutableCopy() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        for (int round = 0; round < 500; round++) {
+            String id = "m" + round;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> {
+                start.await();
+                this.discord.sendMessage(new Message(id, "first", 0, "c0"));
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                start.await();
+                this.discord.sendMessage(new Message(id, "second", 0, "c1"));
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    this.discord.deleteMessage(id);
+                } catch (IllegalArgumentException ignored) {
+                }
+                return null;
+            }));
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+
+            if (this.discord.size() == 1) {
+                Message message = this.discord.getMessage(id);
+                assertEquals(1, ids(this.discord.getChannelMessages(message.getChannel())).size());
+                this.discord.deleteMessage(id);
+            } else {
+                assertEquals(0, this.discord.size());
+                assertThrows(IllegalArgumentException.class, () -> this.discord.getMessage(id));
+            }
+            assertEquals(0, this.discord.size());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubscribe_WithStalledBlockingSubscriber_ShouldThrottleProducers() throws Exception {
+        Subscription subscription = this.discord.subscribe("general", 0, 1, Subscription.Backpressure.BLOCK);
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            int thread = t;
+            producers.add(new Thread(() -> {
+                for (int i = 0; i < 3_000; i++) {
+                    this.discord.sendMessage(new Message(thread + "-" + i, "content", i, "general"));
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (producers.stream().anyMatch(producer -> producer.getState() != Thread.State.WAITING)) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.sleep(1);
+        }
+
+        assertTrue(this.discord.size() < 1_100);
+        subscription.close();
+        for (Thread producer : producers) {
+            producer.join(10_000);
+            assertFalse(producer.isAlive());
+        }
+        assertEquals(6_000, this.discord.size());
+    }
+
+    @Test
+    public void testQueries_WithRandomOperations_ShouldMatchSingleShard() {
+        Random random = new Random(42);
+        List<String> live = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            int operation = random.nextInt(10);
+            if (operation < 5 || live.isEmpty()) {
+                String id = "m" + random.nextInt(400);
+                this.send(id, "x".repeat(random.nextInt(5)), random.nextInt(100), "c" + random.nextInt(6));
+                if (!live.contains(id)) {
+                    live.add(id);
+                }
+            } else if (operation < 9) {
+                this.react(live.get(random.nextInt(live.size())), random.nextBoolean() ? "a" : "b");
+            } else {
+                String id = live.remove(random.nextInt(live.size()));
+                this.discord.deleteMessage(id);
+                this.reference.deleteMessage(id);
+            }
+            if (i % 250 == 0) {
+                this.assertSameQueries();
+            }
+        }
+        this.assertSameQueries();
+    }
+
+    @Test
+    public void testSendMessages_WithBatch_ShouldKeepBatchOrder() {
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            batch.add(new Message("m" + i, "content", i % 7, "c" + i % 5));
+            this.reference.sendMessage(new Message("m" + i, "content", i % 7, "c" + i % 5));
+        }
+
+        this.discord.sendMessages(batch);
+
+        this.assertSameQueries();
+        assertThrows(IllegalArgumentException.class, () -> this.discord.getMessage("missing"));
+    }
+
+    @Test
+    public void testSendMessage_WithConcurrentProducers_ShouldKeepEveryMessage() throws Exception {
+        int perThread = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    String channel = "c" + (thread * perThread + i) % 16;
+                    this.discord.sendMessage(new Message(thread + "-" + i, "content", i, channel));
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * perThread, this.discord.size());
+        int total = 0;
+        for (int channel = 0; channel < 16; channel++) {
+            total += ids(this.discord.getChannelMessages("c" + channel)).size();
+        }
+        assertEquals(THREADS * perThread, total);
+        assertEquals(THREADS * perThread, ids(this.discord.getMessageInTimeRange(0, perThread)).size());
+    }
+}
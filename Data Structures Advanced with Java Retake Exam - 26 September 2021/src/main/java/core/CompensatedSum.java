@@ -0,0 +1,21 @@
+package core;
+
+class CompensatedSum {
+
+    private double sum;
+    private double compensation;
+
+    void add(double value) {
+        double total = this.sum + value;
+        if (Math.abs(this.sum) >= Math.abs(value)) {
+            this.compensation += (this.sum - total) + value;
+        } else {
+            this.compensation += (value - total) + this.sum;
+        }
+        this.sum = total;
+    }
+
+    double get() {
+        return this.sum + this.compensation;
+    }
+}
@@ -2,6 +2,8 @@ package core;
 
 import models.Doodle;
 
+import java.util.List;
+
 public interface DoodleSearch {
     void addDoodle(Doodle doodle);
 
@@ -15,11 +17,27 @@ public interface DoodleSearch {
 
     double getTotalRevenueFromDoodleAds();
 
+    List<Double> getAdRevenueByPeriod();
+
+    void closeRevenuePeriod();
+
+    void setRevenue(String doodleId, double revenue);
+
+    void setIsAd(String doodleId, boolean isAd);
+
     void visitDoodle(String title);
 
     Iterable<Doodle> searchDoodles(String searchQuery);
 
+    Iterable<Doodle> searchDoodles(String searchQuery, int limit);
+
+    Iterable<Doodle> autocomplete(String prefix);
+
     Iterable<Doodle> getDoodleAds();
 
+    Iterable<Doodle> getDoodleAds(int offset, int count);
+
     Iterable<Doodle> getTop3DoodlesByRevenueThenByVisits();
+
+    Iterable<Doodle> getDoodlesByRevenueThenByVisits(int offset, int count);
 }
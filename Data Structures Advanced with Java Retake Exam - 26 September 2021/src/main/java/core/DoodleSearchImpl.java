@@ -2,27 +2,171 @@ package core;
 
 import models.Doodle;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.TreeSet;
 
 public class DoodleSearchImpl implements DoodleSearch {
 
+    private static final int TRIGRAM_LENGTH = 3;
+    private static final int SUGGESTION_COUNT = 10;
+
+    private static final Comparator<Doodle> BY_SEARCH_RANK = (o1, o2) -> {
+        if (Boolean.compare(o1.getIsAd(), o2.getIsAd()) == 0) {
+            if (o1.getTitle().length() == o2.getTitle().length()) {
+                return Integer.compare(o2.getVisits(), o1.getVisits());
+            }
+            return Integer.compare(o1.getTitle().length(), o2.getTitle().length());
+        }
+        return Boolean.compare(o2.getIsAd(), o1.getIsAd());
+    };
+
     private final Set<Doodle> doodles;
     private final Map<String, Doodle> titlesWithDoodles;
     private final Map<String, Doodle> idsWithDoodles;
+    private final CompensatedSum adRevenue;
+    private final List<CompensatedSum> adRevenueByPeriod;
+    private Map<Long, Set<Doodle>> trigrams;
+    private TitleTrie titles;
+    private Map<Doodle, Long> rankSequences;
+    private long nextRankSequence;
+    private TreeSet<Doodle> byRevenue;
+    private TreeSet<Doodle> adsByRevenue;
 
     public DoodleSearchImpl() {
         this.doodles = new LinkedHashSet<>();
         titlesWithDoodles = new LinkedHashMap<>();
         idsWithDoodles = new LinkedHashMap<>();
+        this.adRevenue = new CompensatedSum();
+        this.adRevenueByPeriod = new ArrayList<>();
+        this.adRevenueByPeriod.add(new CompensatedSum());
+    }
+
+    private Map<Long, Set<Doodle>> getTrigrams() {
+        if (this.trigrams == null) {
+            this.trigrams = new HashMap<>();
+            this.doodles.forEach(this::indexTitle);
+        }
+        return this.trigrams;
+    }
+
+    private TitleTrie getTitles() {
+        if (this.titles == null) {
+            this.titles = new TitleTrie(SUGGESTION_COUNT);
+            this.doodles.forEach(this.titles::insert);
+        }
+        return this.titles;
+    }
+
+    private TreeSet<Doodle> getByRevenue() {
+        if (this.byRevenue == null) {
+            this.rankSequences = new HashMap<>();
+            Comparator<Doodle> comparator = (o1, o2) -> {
+                if (Double.compare(o2.getRevenue(), o1.getRevenue()) == 0) {
+                    if (o1.getVisits() == o2.getVisits()) {
+                        return Long.compare(this.rankSequences.get(o1), this.rankSequences.get(o2));
+                    }
+                    return Integer.compare(o2.getVisits(), o1.getVisits());
+                }
+                return Double.compare(o2.getRevenue(), o1.getRevenue());
+            };
+            this.byRevenue = new TreeSet<>(comparator);
+            this.adsByRevenue = new TreeSet<>(comparator);
+            this.doodles.forEach(this::rank);
+        }
+        return this.byRevenue;
+    }
+
+    private TreeSet<Doodle> getAdsByRevenue() {
+        this.getByRevenue();
+        return this.adsByRevenue;
+    }
+
+    private void rank(Doodle doodle) {
+        this.rankSequences.put(doodle, this.nextRankSequence++);
+        this.rerank(doodle);
+    }
+
+    private void unrank(Doodle doodle) {
+        this.byRevenue.remove(doodle);
+        this.adsByRevenue.remove(doodle);
+    }
+
+    private void rerank(Doodle doodle) {
+        this.byRevenue.add(doodle);
+        if (doodle.getIsAd()) {
+            this.adsByRevenue.add(doodle);
+        }
+    }
+
+    private static Set<Long> getTrigrams(String text) {
+        Set<Long> result = new LinkedHashSet<>();
+        for (int i = 0; i + TRIGRAM_LENGTH <= text.length(); i++) {
+            result.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return result;
+    }
+
+    private void indexTitle(Doodle doodle) {
+        for (long trigram : getTrigrams(doodle.getTitle())) {
+            this.trigrams.computeIfAbsent(trigram, k -> new LinkedHashSet<>()).add(doodle);
+        }
+    }
+
+    private void unindexTitle(Doodle doodle) {
+        for (long trigram : getTrigrams(doodle.getTitle())) {
+            Set<Doodle> posting = this.trigrams.get(trigram);
+            if (posting != null) {
+                posting.remove(doodle);
+                if (posting.isEmpty()) {
+                    this.trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static double getAdRevenue(Doodle doodle) {
+        return doodle.getIsAd() ? doodle.getRevenue() * doodle.getVisits() : 0;
+    }
+
+    // Periods only book revenue as it is earned, from listed ads and their visits;
+    // removals and revenue or ad-flag changes revalue the total but never rewrite a period.
+    private void bookAdRevenue(double amount) {
+        if (amount != 0) {
+            this.adRevenue.add(amount);
+            this.adRevenueByPeriod.get(this.adRevenueByPeriod.size() - 1).add(amount);
+        }
+    }
+
+    private void adjustAdRevenue(double amount) {
+        if (amount != 0) {
+            this.adRevenue.add(amount);
+        }
     }
 
     @Override
     public void addDoodle(Doodle doodle) {
-        this.doodles.add(doodle);
+        if (this.doodles.add(doodle)) {
+            this.bookAdRevenue(getAdRevenue(doodle));
+            if (this.trigrams != null) {
+                this.indexTitle(doodle);
+            }
+            if (this.titles != null) {
+                this.titles.insert(doodle);
+            }
+            if (this.byRevenue != null) {
+                this.rank(doodle);
+            }
+        }
         this.titlesWithDoodles.put(doodle.getTitle(), doodle);
         this.idsWithDoodles.put(doodle.getId(), doodle);
     }
@@ -34,7 +178,19 @@ public class DoodleSearchImpl implements DoodleSearch {
         }
         Doodle doodle = this.idsWithDoodles.remove(doodleId);
         this.titlesWithDoodles.remove(doodle.getTitle());
-        this.doodles.remove(doodle);
+        if (this.doodles.remove(doodle)) {
+            this.adjustAdRevenue(-getAdRevenue(doodle));
+            if (this.trigrams != null) {
+                this.unindexTitle(doodle);
+            }
+            if (this.titles != null) {
+                this.titles.remove(doodle);
+            }
+            if (this.byRevenue != null) {
+                this.unrank(doodle);
+                this.rankSequences.remove(doodle);
+            }
+        }
     }
 
     @Override
@@ -58,11 +214,52 @@ public class DoodleSearchImpl implements DoodleSearch {
 
     @Override
     public double getTotalRevenueFromDoodleAds() {
-        return this.doodles
-                .stream()
-                .filter(Doodle::getIsAd)
-                .mapToDouble(value -> value.getRevenue() * value.getVisits())
-                .sum();
+        return this.adRevenue.get();
+    }
+
+    @Override
+    public List<Double> getAdRevenueByPeriod() {
+        List<Double> breakdown = new ArrayList<>(this.adRevenueByPeriod.size());
+        for (CompensatedSum period : this.adRevenueByPeriod) {
+            breakdown.add(period.get());
+        }
+        return breakdown;
+    }
+
+    @Override
+    public void closeRevenuePeriod() {
+        this.adRevenueByPeriod.add(new CompensatedSum());
+    }
+
+    @Override
+    public void setRevenue(String doodleId, double revenue) {
+        Doodle doodle = this.getDoodle(doodleId);
+        if (this.byRevenue != null) {
+            this.unrank(doodle);
+        }
+        this.adjustAdRevenue(-getAdRevenue(doodle));
+        doodle.setRevenue(revenue);
+        this.adjustAdRevenue(getAdRevenue(doodle));
+        if (this.byRevenue != null) {
+            this.rerank(doodle);
+        }
+    }
+
+    @Override
+    public void setIsAd(String doodleId, boolean isAd) {
+        Doodle doodle = this.getDoodle(doodleId);
+        if (this.byRevenue != null) {
+            this.unrank(doodle);
+        }
+        this.adjustAdRevenue(-getAdRevenue(doodle));
+        doodle.setIsAd(isAd);
+        this.adjustAdRevenue(getAdRevenue(doodle));
+        if (this.byRevenue != null) {
+            this.rerank(doodle);
+        }
+        if (this.titles != null) {
+            this.titles.update(doodle);
+        }
     }
 
     @Override
@@ -71,51 +268,113 @@ public class DoodleSearchImpl implements DoodleSearch {
         if (doodle == null) {
             throw new IllegalArgumentException();
         }
+        if (this.byRevenue != null) {
+            this.unrank(doodle);
+        }
         doodle.setVisits(doodle.getVisits() + 1);
+        if (this.byRevenue != null) {
+            this.rerank(doodle);
+        }
+        if (doodle.getIsAd()) {
+            this.bookAdRevenue(doodle.getRevenue());
+        }
+        if (this.titles != null) {
+            this.titles.promote(doodle);
+        }
     }
 
     @Override
     public Iterable<Doodle> searchDoodles(String searchQuery) {
-        return this.doodles
-                .stream()
-                .filter(doodle -> doodle.getTitle().contains(searchQuery))
-                .sorted((o1, o2) -> {
-                    if (Boolean.compare(o1.getIsAd(), o2.getIsAd()) == 0) {
-                        if (o1.getTitle().length() == o2.getTitle().length()) {
-                            return Integer.compare(o2.getVisits(), o1.getVisits());
-                        }
-                        return Integer.compare(o1.getTitle().length(), o2.getTitle().length());
-                    }
-                    return Boolean.compare(o2.getIsAd(), o1.getIsAd());
-                })
-                .collect(Collectors.toList());
+        List<Doodle> matches = this.findMatches(searchQuery);
+        matches.sort(BY_SEARCH_RANK);
+        return matches;
+    }
+
+    @Override
+    public Iterable<Doodle> searchDoodles(String searchQuery, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException();
+        }
+        List<Doodle> matches = this.findMatches(searchQuery);
+        if (limit == 0) {
+            return new ArrayList<>();
+        }
+        Map<Doodle, Integer> order = new HashMap<>();
+        Comparator<Doodle> ranking = BY_SEARCH_RANK.thenComparing(order::get);
+        PriorityQueue<Doodle> top = new PriorityQueue<>(limit, ranking.reversed());
+        for (int i = 0; i < matches.size(); i++) {
+            Doodle doodle = matches.get(i);
+            order.put(doodle, i);
+            top.offer(doodle);
+            if (top.size() > limit) {
+                order.remove(top.poll());
+            }
+        }
+        List<Doodle> result = new ArrayList<>(top);
+        result.sort(ranking);
+        return result;
+    }
+
+    @Override
+    public Iterable<Doodle> autocomplete(String prefix) {
+        return this.getTitles().complete(prefix);
+    }
+
+    private List<Doodle> findMatches(String searchQuery) {
+        Collection<Doodle> candidates = this.doodles;
+        if (searchQuery.length() >= TRIGRAM_LENGTH) {
+            Map<Long, Set<Doodle>> index = this.getTrigrams();
+            for (long trigram : getTrigrams(searchQuery)) {
+                Set<Doodle> posting = index.get(trigram);
+                if (posting == null) {
+                    return new ArrayList<>();
+                }
+                if (posting.size() < candidates.size()) {
+                    candidates = posting;
+                }
+            }
+        }
+        List<Doodle> matches = new ArrayList<>();
+        for (Doodle doodle : candidates) {
+            if (doodle.getTitle().contains(searchQuery)) {
+                matches.add(doodle);
+            }
+        }
+        return matches;
     }
 
     @Override
     public Iterable<Doodle> getDoodleAds() {
-        return this.doodles
-                .stream()
-                .filter(Doodle::getIsAd)
-                .sorted((o1, o2) -> {
-                    if (Double.compare(o2.getRevenue(), o1.getRevenue()) == 0) {
-                        return Integer.compare(o2.getVisits(), o1.getVisits());
-                    }
-                    return Double.compare(o2.getRevenue(), o1.getRevenue());
-                })
-                .collect(Collectors.toList());
+        return new ArrayList<>(this.getAdsByRevenue());
+    }
+
+    @Override
+    public Iterable<Doodle> getDoodleAds(int offset, int count) {
+        return page(this.getAdsByRevenue(), offset, count);
     }
 
     @Override
     public Iterable<Doodle> getTop3DoodlesByRevenueThenByVisits() {
-        return this.doodles
-                .stream()
-                .sorted((o1, o2) -> {
-                    if (Double.compare(o2.getRevenue(), o1.getRevenue()) == 0) {
-                        return Integer.compare(o2.getVisits(), o1.getVisits());
-                    }
-                    return Double.compare(o2.getRevenue(), o1.getRevenue());
-                })
-                .limit(3)
-                .collect(Collectors.toList());
+        return page(this.getByRevenue(), 0, 3);
+    }
+
+    @Override
+    public Iterable<Doodle> getDoodlesByRevenueThenByVisits(int offset, int count) {
+        return page(this.getByRevenue(), offset, count);
+    }
+
+    private static List<Doodle> page(Set<Doodle> ranking, int offset, int count) {
+        if (offset < 0 || count < 0) {
+            throw new IllegalArgumentException();
+        }
+        List<Doodle> result = new ArrayList<>(Math.min(count, Math.max(0, ranking.size() - offset)));
+        Iterator<Doodle> iterator = ranking.iterator();
+        for (int i = 0; i < offset && iterator.hasNext(); i++) {
+            iterator.next();
+        }
+        while (result.size() < count && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
     }
 }
@@ -0,0 +1,200 @@
+package core;
+
+import models.Doodle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class TitleTrie {
+
+    private static final Comparator<Doodle> BY_SUGGESTION_RANK = (o1, o2) -> {
+        if (o1.getIsAd() != o2.getIsAd()) {
+            return Boolean.compare(o2.getIsAd(), o1.getIsAd());
+        }
+        if (o1.getVisits() != o2.getVisits()) {
+            return Integer.compare(o2.getVisits(), o1.getVisits());
+        }
+        int byTitle = o1.getTitle().compareTo(o2.getTitle());
+        return byTitle != 0 ? byTitle : o1.getId().compareTo(o2.getId());
+    };
+
+    private final int capacity;
+    private final Node root;
+
+    TitleTrie(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+        this.root = new Node("");
+    }
+
+    void insert(Doodle doodle) {
+        String title = doodle.getTitle();
+        Node node = this.root;
+        this.offer(node, doodle);
+        int i = 0;
+        while (i < title.length()) {
+            Node child = node.children.get(title.charAt(i));
+            if (child == null) {
+                child = new Node(title.substring(i));
+                node.children.put(title.charAt(i), child);
+            } else {
+                int common = commonPrefix(child.label, title, i);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+            }
+            node = child;
+            i += node.label.length();
+            this.offer(node, doodle);
+        }
+        node.terminals.add(doodle);
+    }
+
+    void promote(Doodle doodle) {
+        List<Node> path = this.path(doodle.getTitle());
+        if (path == null) {
+            return;
+        }
+        for (Node node : path) {
+            node.top.remove(doodle);
+            this.offer(node, doodle);
+        }
+    }
+
+    void update(Doodle doodle) {
+        if (this.remove(doodle)) {
+            this.insert(doodle);
+        }
+    }
+
+    boolean remove(Doodle doodle) {
+        List<Node> path = this.path(doodle.getTitle());
+        if (path == null || !path.get(path.size() - 1).terminals.remove(doodle)) {
+            return false;
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            if (node.top.contains(doodle)) {
+                this.refill(node);
+            }
+        }
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (!node.terminals.isEmpty()) {
+                break;
+            }
+            if (node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+            } else if (node.children.size() == 1) {
+                Node child = node.children.values().iterator().next();
+                node.label += child.label;
+                node.children.clear();
+                node.children.putAll(child.children);
+                node.terminals.addAll(child.terminals);
+                node.top = child.top;
+                break;
+            } else {
+                break;
+            }
+        }
+        return true;
+    }
+
+    List<Doodle> complete(String prefix) {
+        Node node = this.root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.children.get(prefix.charAt(i));
+            if (child == null) {
+                return new ArrayList<>();
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return new ArrayList<>(child.top);
+            }
+            if (common < child.label.length()) {
+                return new ArrayList<>();
+            }
+            node = child;
+            i += common;
+        }
+        return new ArrayList<>(node.top);
+    }
+
+    private List<Node> path(String title) {
+        List<Node> path = new ArrayList<>();
+        Node node = this.root;
+        path.add(node);
+        int i = 0;
+        while (i < title.length()) {
+            Node child = node.children.get(title.charAt(i));
+            if (child == null || !title.startsWith(child.label, i)) {
+                return null;
+            }
+            node = child;
+            i += child.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    private void offer(Node node, Doodle doodle) {
+        int index = 0;
+        while (index < node.top.size() && BY_SUGGESTION_RANK.compare(node.top.get(index), doodle) <= 0) {
+            index++;
+        }
+        if (index < this.capacity) {
+            node.top.add(index, doodle);
+            if (node.top.size() > this.capacity) {
+                node.top.remove(node.top.size() - 1);
+            }
+        }
+    }
+
+    private void refill(Node node) {
+        List<Doodle> candidates = new ArrayList<>(node.terminals);
+        for (Node child : node.children.values()) {
+            candidates.addAll(child.top);
+        }
+        candidates.sort(BY_SUGGESTION_RANK);
+        node.top = new ArrayList<>(candidates.subList(0, Math.min(this.capacity, candidates.size())));
+    }
+
+    private static Node split(Node parent, Node child, int at) {
+        Node middle = new Node(child.label.substring(0, at));
+        child.label = child.label.substring(at);
+        middle.children.put(child.label.charAt(0), child);
+        middle.top = new ArrayList<>(child.top);
+        parent.children.put(middle.label.charAt(0), middle);
+        return middle;
+    }
+
+    private static int commonPrefix(String label, String text, int from) {
+        int length = 0;
+        while (length < label.length() && from + length < text.length()
+                && label.charAt(length) == text.charAt(from + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static class Node {
+        private String label;
+        private final Map<Character, Node> children;
+        private final List<Doodle> terminals;
+        private List<Doodle> top;
+
+        private Node(String label) {
+            this.label = label;
+            this.children = new HashMap<>();
+            this.terminals = new ArrayList<>();
+            this.top = new ArrayList<>();
+        }
+    }
+}
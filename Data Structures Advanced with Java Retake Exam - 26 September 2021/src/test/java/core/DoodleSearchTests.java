@@ -354,4 +354,194 @@ public class DoodleSearchTests {
             Assert.assertEquals(expected[counter++], doodle.getId());
         }
     }
+
+    @Test
+    public void test_getTotalRevenueFromDoodleAds_shouldFollowVisitsRevenueAndAdChanges() {
+        Doodle ad = new Doodle("asd", "first", 10, true, 2.5);
+        Doodle plain = new Doodle("nsd", "second", 20, false, 4);
+        this.doodleSearch.addDoodle(ad);
+        this.doodleSearch.addDoodle(plain);
+        Assert.assertEquals(25, this.doodleSearch.getTotalRevenueFromDoodleAds(), 0);
+
+        this.doodleSearch.visitDoodle("first");
+        this.doodleSearch.visitDoodle("second");
+        Assert.assertEquals(27.5, this.doodleSearch.getTotalRevenueFromDoodleAds(), 0);
+
+        this.doodleSearch.closeRevenuePeriod();
+        this.doodleSearch.setIsAd("nsd", true);
+        this.doodleSearch.setRevenue("asd", 1);
+        Assert.assertEquals(11 + 84, this.doodleSearch.getTotalRevenueFromDoodleAds(), 1e-9);
+        Assert.assertEquals(List.of(27.5, 0.0), this.doodleSearch.getAdRevenueByPeriod());
+
+        this.doodleSearch.visitDoodle("second");
+        Assert.assertEquals(11 + 88, this.doodleSearch.getTotalRevenueFromDoodleAds(), 1e-9);
+        Assert.assertEquals(List.of(27.5, 4.0), this.doodleSearch.getAdRevenueByPeriod());
+
+        this.doodleSearch.removeDoodle("nsd");
+        Assert.assertEquals(11, this.doodleSearch.getTotalRevenueFromDoodleAds(), 1e-9);
+        Assert.assertEquals(List.of(27.5, 4.0), this.doodleSearch.getAdRevenueByPeriod());
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.doodleSearch.setRevenue("nsd", 5));
+    }
+
+    @Test
+    public void test_getAdRevenueByPeriod_shouldNotRewriteClosedPeriods() {
+        this.doodleSearch.addDoodle(new Doodle("asd", "first", 10, true, 2));
+        this.doodleSearch.closeRevenuePeriod();
+
+        this.doodleSearch.removeDoodle("asd");
+        Assert.assertEquals(0, this.doodleSearch.getTotalRevenueFromDoodleAds(), 0);
+        Assert.assertEquals(List.of(20.0, 0.0), this.doodleSearch.getAdRevenueByPeriod());
+    }
+
+    @Test
+    public void test_getTotalRevenueFromDoodleAds_shouldNotDriftOverManyVisits() {
+        this.doodleSearch.addDoodle(new Doodle("big", "big", 1, true, 1e12));
+        this.doodleSearch.addDoodle(new Doodle("small", "small", 0, true, 0.1));
+        for (int i = 0; i < 100_000; i++) {
+            this.doodleSearch.visitDoodle("small");
+        }
+        this.doodleSearch.removeDoodle("big");
+
+        Assert.assertEquals(10_000, this.doodleSearch.getTotalRevenueFromDoodleAds(), 1e-9);
+    }
+
+    @Test
+    public void test_searchDoodles_shouldFollowAddsAndRemovesAfterIndexing() {
+        this.doodleSearch.addDoodle(new Doodle("a", "winter sports", 5, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("b", "summer sports", 9, false, 1));
+        Assert.assertEquals(2, StreamSupport.stream(this.doodleSearch.searchDoodles("sports").spliterator(), false).count());
+
+        this.doodleSearch.addDoodle(new Doodle("c", "sportswear", 1, true, 1));
+        this.doodleSearch.removeDoodle("a");
+
+        List<String> ids = StreamSupport.stream(this.doodleSearch.searchDoodles("sport").spliterator(), false)
+                .map(Doodle::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of("c", "b"), ids);
+        Assert.assertFalse(this.doodleSearch.searchDoodles("winter").iterator().hasNext());
+        Assert.assertFalse(this.doodleSearch.searchDoodles("spx").iterator().hasNext());
+        Assert.assertEquals(2, StreamSupport.stream(this.doodleSearch.searchDoodles("s").spliterator(), false).count());
+    }
+
+    @Test
+    public void test_searchDoodles_withLimit_shouldReturnTopMatchesInSearchOrder() {
+        for (int i = 0; i < 20; i++) {
+            this.doodleSearch.addDoodle(new Doodle("id" + i, "doodle" + i, i % 4, i == 7, 1));
+        }
+
+        List<String> all = StreamSupport.stream(this.doodleSearch.searchDoodles("oodle").spliterator(), false)
+                .map(Doodle::getId)
+                .collect(Collectors.toList());
+        List<String> top = StreamSupport.stream(this.doodleSearch.searchDoodles("oodle", 5).spliterator(), false)
+                .map(Doodle::getId)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(all.subList(0, 5), top);
+        Assert.assertEquals(List.of("id7", "id3", "id2", "id6", "id1"), top);
+        Assert.assertFalse(this.doodleSearch.searchDoodles("oodle", 0).iterator().hasNext());
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.doodleSearch.searchDoodles("oodle", -1));
+    }
+
+    @Test
+    public void test_searchDoodles_withLimit_shouldKeepTieOrder_afterEviction() {
+        this.doodleSearch.addDoodle(new Doodle("A", "xyz-long", 1, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("B", "xyz1", 1, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("C", "xyz2", 1, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("D", "xyz3", 1, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("E", "xyz4", 1, false, 1));
+
+        List<String> all = StreamSupport.stream(this.doodleSearch.searchDoodles("xyz").spliterator(), false)
+                .map(Doodle::getId)
+                .collect(Collectors.toList());
+        Assert.assertEquals(List.of("B", "C", "D", "E", "A"), all);
+        for (int limit = 1; limit <= all.size(); limit++) {
+            List<String> top = StreamSupport.stream(this.doodleSearch.searchDoodles("xyz", limit).spliterator(), false)
+                    .map(Doodle::getId)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(all.subList(0, limit), top);
+        }
+    }
+
+    @Test
+    public void test_autocomplete_shouldRankByAdThenVisitsAndFollowVisits() {
+        this.doodleSearch.addDoodle(new Doodle("a", "carnival", 3, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("b", "car", 5, false, 1));
+        this.doodleSearch.addDoodle(new Doodle("c", "cartoon", 1, true, 1));
+        this.doodleSearch.addDoodle(new Doodle("d", "cat", 9, false, 1));
+
+        Assert.assertEquals(List.of("c", "b", "a"), this.ids(this.doodleSearch.autocomplete("car")));
+        Assert.assertEquals(List.of("c", "d", "b", "a"), this.ids(this.doodleSearch.autocomplete("ca")));
+        Assert.assertEquals(List.of("a"), this.ids(this.doodleSearch.autocomplete("carn")));
+        Assert.assertTrue(this.ids(this.doodleSearch.autocomplete("cab")).isEmpty());
+
+        this.doodleSearch.visitDoodle("carnival");
+        this.doodleSearch.visitDoodle("carnival");
+        this.doodleSearch.visitDoodle("carnival");
+        Assert.assertEquals(List.of("c", "a", "b"), this.ids(this.doodleSearch.autocomplete("car")));
+
+        this.doodleSearch.setIsAd("c", false);
+        this.doodleSearch.removeDoodle("a");
+        this.doodleSearch.addDoodle(new Doodle("e", "cart", 2, false, 1));
+        Assert.assertEquals(List.of("b", "e", "c"), this.ids(this.doodleSearch.autocomplete("car")));
+        Assert.assertEquals(List.of("e", "c"), this.ids(this.doodleSearch.autocomplete("cart")));
+    }
+
+    @Test
+    public void test_autocomplete_shouldKeepTopSuggestionsAfterRemovals() {
+        for (int i = 0; i < 30; i++) {
+            this.doodleSearch.addDoodle(new Doodle("id" + i, "title" + i, i, false, 1));
+        }
+        this.doodleSearch.autocomplete("title");
+        for (int i = 29; i >= 25; i--) {
+            this.doodleSearch.removeDoodle("id" + i);
+        }
+
+        List<String> expected = List.of("id24", "id23", "id22", "id21", "id20",
+                "id19", "id18", "id17", "id16", "id15");
+        Assert.assertEquals(expected, this.ids(this.doodleSearch.autocomplete("t")));
+        Assert.assertEquals(List.of("id24", "id23", "id22", "id21", "id20", "id2"),
+                this.ids(this.doodleSearch.autocomplete("title2")));
+    }
+
+    @Test
+    public void test_revenueRankings_shouldRepositionOnVisitsRevenueAndAdChanges() {
+        this.doodleSearch.addDoodle(new Doodle("a", "first", 1, true, 2));
+        this.doodleSearch.addDoodle(new Doodle("b", "second", 1, true, 2));
+        this.doodleSearch.addDoodle(new Doodle("c", "third", 5, false, 3));
+        this.doodleSearch.addDoodle(new Doodle("d", "fourth", 0, true, 1));
+        Assert.assertEquals(List.of("c", "a", "b"), this.ids(this.doodleSearch.getTop3DoodlesByRevenueThenByVisits()));
+        Assert.assertEquals(List.of("a", "b", "d"), this.ids(this.doodleSearch.getDoodleAds()));
+
+        this.doodleSearch.visitDoodle("second");
+        this.doodleSearch.setRevenue("d", 4);
+        this.doodleSearch.setIsAd("c", true);
+        this.doodleSearch.addDoodle(new Doodle("e", "fifth", 9, false, 2));
+
+        Assert.assertEquals(List.of("d", "c", "e", "b", "a"),
+                this.ids(this.doodleSearch.getDoodlesByRevenueThenByVisits(0, 10)));
+        Assert.assertEquals(List.of("d", "c", "b", "a"), this.ids(this.doodleSearch.getDoodleAds()));
+
+        this.doodleSearch.removeDoodle("c");
+        Assert.assertEquals(List.of("d", "e", "b"), this.ids(this.doodleSearch.getTop3DoodlesByRevenueThenByVisits()));
+    }
+
+    @Test
+    public void test_revenueRankings_shouldPage() {
+        for (int i = 0; i < 10; i++) {
+            this.doodleSearch.addDoodle(new Doodle("id" + i, "title" + i, 0, i % 2 == 0, i));
+        }
+
+        Assert.assertEquals(List.of("id7", "id6", "id5"),
+                this.ids(this.doodleSearch.getDoodlesByRevenueThenByVisits(2, 3)));
+        Assert.assertEquals(List.of("id6", "id4"), this.ids(this.doodleSearch.getDoodleAds(1, 2)));
+        Assert.assertEquals(List.of("id0"), this.ids(this.doodleSearch.getDoodleAds(4, 5)));
+        Assert.assertTrue(this.ids(this.doodleSearch.getDoodleAds(5, 5)).isEmpty());
+        Assert.assertThrows(IllegalArgumentException.class, () -> this.doodleSearch.getDoodleAds(-1, 2));
+    }
+
+    private List<String> ids(Iterable<Doodle> doodles) {
+        return StreamSupport.stream(doodles.spliterator(), false)
+                .map(Doodle::getId)
+                .collect(Collectors.toList());
+    }
 }